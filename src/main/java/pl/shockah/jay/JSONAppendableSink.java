@@ -0,0 +1,44 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+
+public class JSONAppendableSink extends JSONSink {
+	@Nonnull public final Appendable appendable;
+
+	public JSONAppendableSink(@Nonnull Appendable appendable) {
+		this.appendable = appendable;
+	}
+
+	@Override
+	public void append(char c) {
+		try {
+			appendable.append(c);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void append(@Nonnull CharSequence s, int start, int end) {
+		try {
+			appendable.append(s, start, end);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void append(@Nonnull char[] chars, int start, int end) {
+		append(CharBuffer.wrap(chars), start, end);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (appendable instanceof Flushable)
+			((Flushable)appendable).flush();
+	}
+}
@@ -0,0 +1,25 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class JSONByteBufferSink extends JSONByteSink {
+	@Nonnull public final ByteBuffer output;
+
+	public JSONByteBufferSink(@Nonnull ByteBuffer output) {
+		super(DEFAULT_CAPACITY);
+		this.output = output;
+	}
+
+	@Override
+	protected void drain(int required) {
+		output.put(buffer, 0, position);
+		position = 0;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain(0);
+	}
+}
@@ -0,0 +1,43 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+
+public class JSONByteBufferSource extends JSONByteSource {
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	@Nonnull protected ByteBuffer input;
+
+	public JSONByteBufferSource(@Nonnull ByteBuffer input) {
+		this(input, DEFAULT_BUFFER_SIZE);
+	}
+
+	public JSONByteBufferSource(@Nonnull ByteBuffer input, int bufferSize) {
+		super(bufferSize);
+		this.input = input.duplicate();
+		skipByteOrderMark();
+	}
+
+	protected JSONByteBufferSource(int bufferSize) {
+		super(bufferSize);
+		input = ByteBuffer.allocate(0);
+	}
+
+	@Override
+	protected boolean fill() {
+		if (position < limit)
+			return true;
+		offset += limit;
+		position = 0;
+		limit = 0;
+		if (!input.hasRemaining() && !nextInput())
+			return false;
+		limit = Math.min(buffer.length, input.remaining());
+		input.get(buffer, 0, limit);
+		return true;
+	}
+
+	protected boolean nextInput() {
+		return false;
+	}
+}
@@ -0,0 +1,252 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class JSONByteSink extends JSONSink {
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	@Nonnull protected byte[] buffer;
+	protected final int start;
+	protected int position;
+	protected int limit;
+	protected final boolean growable;
+	protected char pendingSurrogate = 0;
+
+	public JSONByteSink() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public JSONByteSink(int initialCapacity) {
+		if (initialCapacity <= 0)
+			throw new IllegalArgumentException();
+		buffer = new byte[initialCapacity];
+		start = 0;
+		position = 0;
+		limit = initialCapacity;
+		growable = true;
+	}
+
+	public JSONByteSink(@Nonnull byte[] buffer) {
+		this(buffer, 0, buffer.length);
+	}
+
+	public JSONByteSink(@Nonnull byte[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > buffer.length)
+			throw new IndexOutOfBoundsException();
+		this.buffer = buffer;
+		start = offset;
+		position = offset;
+		limit = offset + length;
+		growable = false;
+	}
+
+	protected void drain(int required) {
+		if (!growable)
+			throw new BufferOverflowException();
+		int capacity = Math.max(buffer.length * 2, position + required);
+		buffer = Arrays.copyOf(buffer, capacity);
+		limit = capacity;
+	}
+
+	public int size() {
+		return position - start;
+	}
+
+	public int getPosition() {
+		return position;
+	}
+
+	@Nonnull
+	public byte[] getBuffer() {
+		return buffer;
+	}
+
+	public void reset() {
+		position = start;
+		pendingSurrogate = 0;
+	}
+
+	@Nonnull
+	public byte[] toByteArray() {
+		return Arrays.copyOfRange(buffer, start, position);
+	}
+
+	@Nonnull
+	public ByteBuffer toByteBuffer() {
+		return ByteBuffer.wrap(buffer, start, position - start);
+	}
+
+	public void writeTo(@Nonnull OutputStream out) throws IOException {
+		out.write(buffer, start, position - start);
+	}
+
+	@Override
+	public void append(char c) {
+		if (c < 0x80 && pendingSurrogate == 0) {
+			if (position == limit)
+				drain(1);
+			buffer[position++] = (byte)c;
+		} else {
+			encode(c);
+		}
+	}
+
+	@Override
+	public void append(@Nonnull CharSequence s, int start, int end) {
+		while (start < end) {
+			if (position == limit)
+				drain(1);
+			int count = pendingSurrogate == 0 ? Math.min(end - start, limit - position) : 0;
+			byte[] buffer = this.buffer;
+			int position = this.position;
+			int i = 0;
+			while (i < count) {
+				char c = s.charAt(start + i);
+				if (c >= 0x80)
+					break;
+				buffer[position + i] = (byte)c;
+				i++;
+			}
+			this.position = position + i;
+			start += i;
+			if (i == count && count != 0)
+				continue;
+			encode(s.charAt(start++));
+		}
+	}
+
+	@Override
+	public void append(@Nonnull char[] chars, int start, int end) {
+		while (start < end) {
+			if (position == limit)
+				drain(1);
+			int count = pendingSurrogate == 0 ? Math.min(end - start, limit - position) : 0;
+			byte[] buffer = this.buffer;
+			int position = this.position;
+			int i = 0;
+			while (i < count) {
+				char c = chars[start + i];
+				if (c >= 0x80)
+					break;
+				buffer[position + i] = (byte)c;
+				i++;
+			}
+			this.position = position + i;
+			start += i;
+			if (i == count && count != 0)
+				continue;
+			encode(chars[start++]);
+		}
+	}
+
+	@Override
+	public void append(@Nonnull JSONFragment fragment) {
+		if (pendingSurrogate != 0) {
+			super.append(fragment);
+			return;
+		}
+		byte[] bytes = fragment.getBytes();
+		appendBytes(bytes, 0, bytes.length);
+	}
+
+	protected void appendBytes(@Nonnull byte[] bytes, int start, int end) {
+		if (pendingSurrogate != 0) {
+			pendingSurrogate = 0;
+			reserve(1);
+			buffer[position++] = '?';
+		}
+		while (start < end) {
+			if (position == limit)
+				drain(end - start);
+			int count = Math.min(end - start, limit - position);
+			System.arraycopy(bytes, start, buffer, position, count);
+			position += count;
+			start += count;
+		}
+	}
+
+	@Override
+	public void appendLong(long value) {
+		char[] chars = getNumberBuffer();
+		appendAscii(chars, JSONNumberFormat.format(value, chars, 0));
+	}
+
+	@Override
+	public void appendDouble(double value) {
+		char[] chars = getNumberBuffer();
+		appendAscii(chars, JSONNumberFormat.format(value, chars, 0));
+	}
+
+	protected void appendAscii(@Nonnull char[] chars, int length) {
+		if (pendingSurrogate != 0) {
+			append(chars, 0, length);
+			return;
+		}
+		reserve(length);
+		byte[] buffer = this.buffer;
+		int position = this.position;
+		for (int i = 0; i < length; i++)
+			buffer[position + i] = (byte)chars[i];
+		this.position = position + length;
+	}
+
+	protected void reserve(int count) {
+		if (limit - position < count)
+			drain(count);
+	}
+
+	protected void encode(char c) {
+		if (pendingSurrogate != 0) {
+			char high = pendingSurrogate;
+			pendingSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint(high, c);
+				reserve(4);
+				buffer[position++] = (byte)(0xF0 | (codePoint >> 18));
+				buffer[position++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[position++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[position++] = (byte)(0x80 | (codePoint & 0x3F));
+				return;
+			}
+			reserve(1);
+			buffer[position++] = '?';
+		}
+		if (c < 0x80) {
+			reserve(1);
+			buffer[position++] = (byte)c;
+		} else if (c < 0x800) {
+			reserve(2);
+			buffer[position++] = (byte)(0xC0 | (c >> 6));
+			buffer[position++] = (byte)(0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c)) {
+			pendingSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			reserve(1);
+			buffer[position++] = '?';
+		} else {
+			reserve(3);
+			buffer[position++] = (byte)(0xE0 | (c >> 12));
+			buffer[position++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+			buffer[position++] = (byte)(0x80 | (c & 0x3F));
+		}
+	}
+
+	protected void finish() {
+		if (pendingSurrogate != 0) {
+			pendingSurrogate = 0;
+			reserve(1);
+			buffer[position++] = '?';
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+		flush();
+	}
+}
@@ -0,0 +1,208 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+
+public class JSONByteSource extends JSONSource {
+	@Nonnull protected static final JSONPool<char[]> DECODE_BUFFERS = JSONPool.ofChars(256);
+
+	@Nonnull protected final byte[] buffer;
+	protected int position;
+	protected int limit;
+	protected long offset;
+	@Nonnull protected char[] chars = DECODE_BUFFERS.acquire();
+
+	public JSONByteSource(@Nonnull byte[] bytes) {
+		this(bytes, 0, bytes.length);
+	}
+
+	public JSONByteSource(@Nonnull byte[] bytes, int start, int end) {
+		if (start < 0 || end > bytes.length || start > end)
+			throw new IndexOutOfBoundsException();
+		buffer = bytes;
+		position = start;
+		limit = end;
+		offset = -start;
+		skipByteOrderMark();
+	}
+
+	protected JSONByteSource(int bufferSize) {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException();
+		buffer = new byte[bufferSize];
+	}
+
+	@Override
+	protected void releaseBuffers() {
+		if (!released)
+			DECODE_BUFFERS.release(chars);
+		super.releaseBuffers();
+		chars = null;
+	}
+
+	protected boolean fill() {
+		return false;
+	}
+
+	protected void skipByteOrderMark() {
+		if (peek() == 0xEF) {
+			read();
+			if (read() != 0xBB || read() != 0xBF)
+				throw new JSONParseException("Invalid UTF-8 byte order mark");
+		}
+	}
+
+	@Override
+	public int peek() {
+		return position < limit || fill() ? buffer[position] & 0xFF : EOF;
+	}
+
+	@Override
+	public int read() {
+		return position < limit || fill() ? buffer[position++] & 0xFF : EOF;
+	}
+
+	@Override
+	public long getPosition() {
+		return offset + position;
+	}
+
+	@Override
+	public int peekSignificant() {
+		while (position < limit || fill()) {
+			int c = buffer[position] & 0xFF;
+			if (c == '/') {
+				position++;
+				skipComment();
+			} else if (isWhitespace(c)) {
+				position++;
+			} else {
+				return c;
+			}
+		}
+		return EOF;
+	}
+
+	@Override
+	protected void readStringRun(@Nonnull StringBuilder sb, int quote) {
+		char[] chars = this.chars;
+		int n = 0;
+		while (position < limit || fill()) {
+			if (n >= chars.length - 1) {
+				sb.append(chars, 0, n);
+				n = 0;
+			}
+			int end = Math.min(limit, position + chars.length - 1 - n);
+			while (position < end) {
+				byte b = buffer[position];
+				if (b < 0 || b == quote || b == '\\')
+					break;
+				chars[n++] = (char)b;
+				position++;
+			}
+			if (position == end)
+				continue;
+			int c = buffer[position] & 0xFF;
+			if (c == quote || c == '\\')
+				break;
+			position++;
+			n = decodeMultiByte(c, chars, n);
+		}
+		sb.append(chars, 0, n);
+	}
+
+	@Override
+	protected void appendCharacter(@Nonnull StringBuilder sb, int c) {
+		if (c < 0x80) {
+			sb.append((char)c);
+		} else {
+			int n = decodeMultiByte(c, chars, 0);
+			sb.append(chars, 0, n);
+		}
+	}
+
+	protected int decodeMultiByte(int first, @Nonnull char[] chars, int n) {
+		int codePoint;
+		int continuation;
+		int min;
+		if ((first & 0xE0) == 0xC0) {
+			codePoint = first & 0x1F;
+			continuation = 1;
+			min = 0x80;
+		} else if ((first & 0xF0) == 0xE0) {
+			codePoint = first & 0x0F;
+			continuation = 2;
+			min = 0x800;
+		} else if ((first & 0xF8) == 0xF0) {
+			codePoint = first & 0x07;
+			continuation = 3;
+			min = Character.MIN_SUPPLEMENTARY_CODE_POINT;
+		} else {
+			chars[n++] = '\uFFFD';
+			return n;
+		}
+		for (int i = 0; i < continuation; i++) {
+			int c = peek();
+			if (c == EOF || (c & 0xC0) != 0x80) {
+				chars[n++] = '\uFFFD';
+				return n;
+			}
+			read();
+			codePoint = (codePoint << 6) | (c & 0x3F);
+		}
+		if (codePoint < min || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+			chars[n++] = '\uFFFD';
+		} else if (Character.isSupplementaryCodePoint(codePoint)) {
+			chars[n++] = Character.highSurrogate(codePoint);
+			chars[n++] = Character.lowSurrogate(codePoint);
+		} else {
+			chars[n++] = (char)codePoint;
+		}
+		return n;
+	}
+
+	@Override
+	public void skipString() {
+		long start = getPosition();
+		int quote = read();
+		while (position < limit || fill()) {
+			byte b = buffer[position++];
+			if (b == quote)
+				return;
+			if (b == '\\' && (position < limit || fill()))
+				position++;
+		}
+		throw unterminatedString(start);
+	}
+
+	@Override
+	protected void skipContainer() {
+		int depth = 0;
+		while (position < limit || fill()) {
+			switch (buffer[position]) {
+				case '{':
+				case '[':
+					position++;
+					depth++;
+					break;
+				case '}':
+				case ']':
+					position++;
+					if (--depth == 0)
+						return;
+					break;
+				case '"':
+				case '\'':
+					skipString();
+					break;
+				case '/':
+					position++;
+					skipComment();
+					break;
+				default:
+					position++;
+					break;
+			}
+		}
+		throw unexpected(EOF, "ObjectEnd or ListEnd");
+	}
+}
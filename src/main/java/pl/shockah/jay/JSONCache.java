@@ -0,0 +1,46 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class JSONCache<K, V> {
+	public final int maxSize;
+	@Nonnull protected final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+
+	public JSONCache(int maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException();
+		this.maxSize = maxSize;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	@Nullable
+	public V get(@Nonnull K key) {
+		return entries.get(key);
+	}
+
+	@Nonnull
+	public V put(@Nonnull K key, @Nonnull V value) {
+		if (entries.size() >= maxSize)
+			evict();
+		V previous = entries.putIfAbsent(key, value);
+		return previous != null ? previous : value;
+	}
+
+	protected void evict() {
+		Iterator<K> iterator = entries.keySet().iterator();
+		while (entries.size() >= maxSize && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+}
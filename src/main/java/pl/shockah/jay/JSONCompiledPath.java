@@ -0,0 +1,339 @@
+package pl.shockah.jay;
+
+import pl.shockah.util.func.Action0;
+import pl.shockah.util.func.Action1;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class JSONCompiledPath {
+	@Nonnull public final String path;
+	@Nonnull protected final String[] keys;
+	@Nonnull protected final String last;
+
+	protected JSONCompiledPath(@Nonnull String path, @Nonnull String[] keys) {
+		this.path = path;
+		this.keys = keys;
+		last = keys[keys.length - 1];
+	}
+
+	@Nonnull
+	public static JSONCompiledPath compile(@Nonnull String path) {
+		List<String> keys = new ArrayList<>();
+		int start = 0;
+		while (true) {
+			int end = path.indexOf('.', start);
+			if (end == -1) {
+				keys.add(path.substring(start));
+				break;
+			}
+			keys.add(path.substring(start, end));
+			start = end + 1;
+		}
+		while (keys.size() > 1 && keys.get(keys.size() - 1).isEmpty())
+			keys.remove(keys.size() - 1);
+		if (keys.size() == 1 && keys.get(0).isEmpty() && !path.isEmpty())
+			throw new IllegalArgumentException(String.format("Invalid path '%s'", path));
+		return new JSONCompiledPath(path, keys.toArray(new String[0]));
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	@Nonnull
+	public String getKey(int index) {
+		return keys[index];
+	}
+
+	@Nonnull
+	protected JSONObject walk(@Nonnull JSONObject json) {
+		for (int i = 0; i < keys.length - 1; i++)
+			json = json.getObject(keys[i]);
+		return json;
+	}
+
+	@Nullable
+	protected JSONObject walkExisting(@Nonnull JSONObject json) {
+		for (int i = 0; i < keys.length - 1; i++) {
+			if (!json.containsKey(keys[i]))
+				return null;
+			json = json.getObject(keys[i]);
+		}
+		return json;
+	}
+
+	@Nonnull
+	protected JSONObject walkOrCreate(@Nonnull JSONObject json) {
+		for (int i = 0; i < keys.length - 1; i++)
+			json = json.getObjectOrNew(keys[i]);
+		return json;
+	}
+
+	public boolean getBool(@Nonnull JSONObject json) {
+		return walk(json).getBool(last);
+	}
+
+	public boolean getBool(@Nonnull JSONObject json, boolean def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getBool(last, def);
+	}
+
+	@Nullable
+	public Boolean getOptionalBool(@Nonnull JSONObject json) {
+		return walk(json).getOptionalBool(last);
+	}
+
+	public void onBool(@Nonnull JSONObject json, @Nonnull Action1<Boolean> f) {
+		walk(json).onBool(last, f);
+	}
+
+	public void onBool(@Nonnull JSONObject json, @Nonnull Action1<Boolean> f, @Nonnull Action0 orElse) {
+		walk(json).onBool(last, f, orElse);
+	}
+
+	@Nonnull
+	public BigInteger getBigInt(@Nonnull JSONObject json) {
+		return walk(json).getBigInt(last);
+	}
+
+	@Nonnull
+	public BigInteger getBigInt(@Nonnull JSONObject json, @Nonnull BigInteger def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getBigInt(last, def);
+	}
+
+	@Nullable
+	public BigInteger getOptionalBigInt(@Nonnull JSONObject json) {
+		return walk(json).getOptionalBigInt(last);
+	}
+
+	public void onBigInt(@Nonnull JSONObject json, @Nonnull Action1<BigInteger> f) {
+		walk(json).onBigInt(last, f);
+	}
+
+	public void onBigInt(@Nonnull JSONObject json, @Nonnull Action1<BigInteger> f, @Nonnull Action0 orElse) {
+		walk(json).onBigInt(last, f, orElse);
+	}
+
+	public int getInt(@Nonnull JSONObject json) {
+		return walk(json).getInt(last);
+	}
+
+	public int getInt(@Nonnull JSONObject json, int def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getInt(last, def);
+	}
+
+	@Nullable
+	public Integer getOptionalInt(@Nonnull JSONObject json) {
+		return walk(json).getOptionalInt(last);
+	}
+
+	public void onInt(@Nonnull JSONObject json, @Nonnull Action1<Integer> f) {
+		walk(json).onInt(last, f);
+	}
+
+	public void onInt(@Nonnull JSONObject json, @Nonnull Action1<Integer> f, @Nonnull Action0 orElse) {
+		walk(json).onInt(last, f, orElse);
+	}
+
+	public long getLong(@Nonnull JSONObject json) {
+		return walk(json).getLong(last);
+	}
+
+	public long getLong(@Nonnull JSONObject json, long def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getLong(last, def);
+	}
+
+	@Nullable
+	public Long getOptionalLong(@Nonnull JSONObject json) {
+		return walk(json).getOptionalLong(last);
+	}
+
+	public void onLong(@Nonnull JSONObject json, @Nonnull Action1<Long> f) {
+		walk(json).onLong(last, f);
+	}
+
+	public void onLong(@Nonnull JSONObject json, @Nonnull Action1<Long> f, @Nonnull Action0 orElse) {
+		walk(json).onLong(last, f, orElse);
+	}
+
+	@Nonnull
+	public BigDecimal getBigDecimal(@Nonnull JSONObject json) {
+		return walk(json).getBigDecimal(last);
+	}
+
+	@Nonnull
+	public BigDecimal getBigDecimal(@Nonnull JSONObject json, @Nonnull BigDecimal def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getBigDecimal(last, def);
+	}
+
+	@Nullable
+	public BigDecimal getOptionalBigDecimal(@Nonnull JSONObject json) {
+		return walk(json).getOptionalBigDecimal(last);
+	}
+
+	public void onBigDecimal(@Nonnull JSONObject json, @Nonnull Action1<BigDecimal> f) {
+		walk(json).onBigDecimal(last, f);
+	}
+
+	public void onBigDecimal(@Nonnull JSONObject json, @Nonnull Action1<BigDecimal> f, @Nonnull Action0 orElse) {
+		walk(json).onBigDecimal(last, f, orElse);
+	}
+
+	public float getFloat(@Nonnull JSONObject json) {
+		return walk(json).getFloat(last);
+	}
+
+	public float getFloat(@Nonnull JSONObject json, float def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getFloat(last, def);
+	}
+
+	@Nullable
+	public Float getOptionalFloat(@Nonnull JSONObject json) {
+		return walk(json).getOptionalFloat(last);
+	}
+
+	public void onFloat(@Nonnull JSONObject json, @Nonnull Action1<Float> f) {
+		walk(json).onFloat(last, f);
+	}
+
+	public void onFloat(@Nonnull JSONObject json, @Nonnull Action1<Float> f, @Nonnull Action0 orElse) {
+		walk(json).onFloat(last, f, orElse);
+	}
+
+	public double getDouble(@Nonnull JSONObject json) {
+		return walk(json).getDouble(last);
+	}
+
+	public double getDouble(@Nonnull JSONObject json, double def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getDouble(last, def);
+	}
+
+	@Nullable
+	public Double getOptionalDouble(@Nonnull JSONObject json) {
+		return walk(json).getOptionalDouble(last);
+	}
+
+	public void onDouble(@Nonnull JSONObject json, @Nonnull Action1<Double> f) {
+		walk(json).onDouble(last, f);
+	}
+
+	public void onDouble(@Nonnull JSONObject json, @Nonnull Action1<Double> f, @Nonnull Action0 orElse) {
+		walk(json).onDouble(last, f, orElse);
+	}
+
+	@Nonnull
+	public String getString(@Nonnull JSONObject json) {
+		return walk(json).getString(last);
+	}
+
+	@Nonnull
+	public String getString(@Nonnull JSONObject json, @Nonnull String def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getString(last, def);
+	}
+
+	@Nullable
+	public String getOptionalString(@Nonnull JSONObject json) {
+		return walk(json).getOptionalString(last);
+	}
+
+	public void onString(@Nonnull JSONObject json, @Nonnull Action1<String> f) {
+		walk(json).onString(last, f);
+	}
+
+	public void onString(@Nonnull JSONObject json, @Nonnull Action1<String> f, @Nonnull Action0 orElse) {
+		walk(json).onString(last, f, orElse);
+	}
+
+	@Nonnull
+	public JSONObject getObject(@Nonnull JSONObject json) {
+		return walk(json).getObject(last);
+	}
+
+	@Nonnull
+	public JSONObject getObject(@Nonnull JSONObject json, @Nonnull JSONObject def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getObject(last, def);
+	}
+
+	@Nonnull
+	public JSONObject getObjectOrEmpty(@Nonnull JSONObject json) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? new JSONObject() : parent.getObjectOrEmpty(last);
+	}
+
+	@Nonnull
+	public JSONObject getObjectOrNew(@Nonnull JSONObject json) {
+		return walkOrCreate(json).getObjectOrNew(last);
+	}
+
+	@Nullable
+	public JSONObject getOptionalObject(@Nonnull JSONObject json) {
+		return walk(json).getOptionalObject(last);
+	}
+
+	public void onObject(@Nonnull JSONObject json, @Nonnull Action1<JSONObject> f) {
+		walk(json).onObject(last, f);
+	}
+
+	public void onObject(@Nonnull JSONObject json, @Nonnull Action1<JSONObject> f, @Nonnull Action0 orElse) {
+		walk(json).onObject(last, f, orElse);
+	}
+
+	@Nonnull
+	public JSONList<?> getList(@Nonnull JSONObject json) {
+		return walk(json).getList(last);
+	}
+
+	@Nonnull
+	public JSONList<?> getList(@Nonnull JSONObject json, @Nonnull JSONList<?> def) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? def : parent.getList(last, def);
+	}
+
+	@Nonnull
+	public JSONList<?> getListOrEmpty(@Nonnull JSONObject json) {
+		JSONObject parent = walkExisting(json);
+		return parent == null ? new JSONList<>() : parent.getListOrEmpty(last);
+	}
+
+	@Nonnull
+	public JSONList<?> getListOrNew(@Nonnull JSONObject json) {
+		return walkOrCreate(json).getListOrNew(last);
+	}
+
+	@Nullable
+	public JSONList<?> getOptionalList(@Nonnull JSONObject json) {
+		return walk(json).getOptionalList(last);
+	}
+
+	public void onList(@Nonnull JSONObject json, @Nonnull Action1<JSONList<?>> f) {
+		walk(json).onList(last, f);
+	}
+
+	public void onList(@Nonnull JSONObject json, @Nonnull Action1<JSONList<?>> f, @Nonnull Action0 orElse) {
+		walk(json).onList(last, f, orElse);
+	}
+
+	public void put(@Nonnull JSONObject json, @Nullable Object value) {
+		value = json.prepareValue(value);
+		walkOrCreate(json).put(last, value);
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return path;
+	}
+}
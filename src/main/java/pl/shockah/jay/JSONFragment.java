@@ -0,0 +1,58 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+
+public final class JSONFragment {
+	@Nullable protected volatile char[] chars;
+	@Nullable protected volatile byte[] bytes;
+
+	public JSONFragment(@Nonnull char[] chars) {
+		this.chars = chars;
+	}
+
+	@Nonnull
+	public static JSONFragment ofBytes(@Nonnull byte[] bytes) {
+		return new JSONFragment(null, bytes);
+	}
+
+	protected JSONFragment(@Nullable char[] chars, @Nullable byte[] bytes) {
+		this.chars = chars;
+		this.bytes = bytes;
+	}
+
+	public int length() {
+		return getChars().length;
+	}
+
+	@Nonnull
+	public char[] getChars() {
+		char[] chars = this.chars;
+		if (chars == null) {
+			chars = new String(bytes, StandardCharsets.UTF_8).toCharArray();
+			this.chars = chars;
+		}
+		return chars;
+	}
+
+	@Nonnull
+	public byte[] getBytes() {
+		byte[] bytes = this.bytes;
+		if (bytes == null) {
+			char[] chars = this.chars;
+			JSONByteSink sink = new JSONByteSink(chars.length + 16);
+			sink.append(chars, 0, chars.length);
+			sink.finish();
+			bytes = sink.toByteArray();
+			this.bytes = bytes;
+		}
+		return bytes;
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return new String(getChars());
+	}
+}
@@ -0,0 +1,45 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public interface JSONHandler {
+	default void startObject() {
+	}
+
+	default void key(@Nonnull CharSequence key) {
+	}
+
+	default void endObject() {
+	}
+
+	default void startList() {
+	}
+
+	default void endList() {
+	}
+
+	default void value(@Nonnull CharSequence value) {
+	}
+
+	default void value(long value) {
+	}
+
+	default void value(@Nonnull BigInteger value) {
+		value(value.doubleValue());
+	}
+
+	default void value(double value) {
+	}
+
+	default void value(@Nonnull BigDecimal value) {
+		value(value.doubleValue());
+	}
+
+	default void value(boolean value) {
+	}
+
+	default void nullValue() {
+	}
+}
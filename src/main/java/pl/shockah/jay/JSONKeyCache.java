@@ -0,0 +1,48 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class JSONKeyCache {
+	public static final int DEFAULT_MAX_SIZE = 4096;
+
+	public final int maxSize;
+	@Nonnull protected final ConcurrentHashMap<String, JSONFragment> keys = new ConcurrentHashMap<>();
+	@Nonnull protected final ConcurrentHashMap<String, JSONFragment> asciiKeys = new ConcurrentHashMap<>();
+
+	public JSONKeyCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public JSONKeyCache(int maxSize) {
+		if (maxSize <= 0)
+			throw new IllegalArgumentException();
+		this.maxSize = maxSize;
+	}
+
+	public int size() {
+		return keys.size() + asciiKeys.size();
+	}
+
+	public void clear() {
+		keys.clear();
+		asciiKeys.clear();
+	}
+
+	@Nullable
+	public JSONFragment get(@Nonnull String key, boolean escapeNonAscii) {
+		ConcurrentHashMap<String, JSONFragment> keys = escapeNonAscii ? asciiKeys : this.keys;
+		JSONFragment fragment = keys.get(key);
+		if (fragment != null || keys.size() >= maxSize)
+			return fragment;
+		JSONStringSink sink = new JSONStringSink(new StringBuilder(key.length() + 3));
+		JSONPrinter.writeString(sink, key, escapeNonAscii);
+		sink.append(':');
+		char[] chars = new char[sink.sb.length()];
+		sink.sb.getChars(0, chars.length, chars, 0);
+		fragment = new JSONFragment(chars);
+		JSONFragment previous = keys.putIfAbsent(key, fragment);
+		return previous != null ? previous : fragment;
+	}
+}
@@ -2,17 +2,53 @@ package pl.shockah.jay;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 public class JSONList<T> extends ArrayList<T> {
 	private static final long serialVersionUID = 1574253633071750087L;
+
+	protected static final byte OBJECTS = 0;
+	protected static final byte INTS = 1;
+	protected static final byte LONGS = 2;
+	protected static final byte DOUBLES = 3;
+
+	private static final Object[] EMPTY = new Object[0];
 	
 	@Nullable protected final Class<T> clazz;
+
+	protected byte storage = OBJECTS;
+	@Nonnull protected Object[] elements = EMPTY;
+	@Nullable protected int[] ints;
+	@Nullable protected long[] longs;
+	@Nullable protected double[] doubles;
+	protected int size = 0;
+	protected int nonLiterals = 0;
+	@Nullable protected transient volatile JSONNodeState state;
+	@Nonnull protected JSONParser.NumberMode numberMode = JSONParser.NumberMode.Exact;
 	
 	@SafeVarargs
 	@Nonnull
@@ -30,6 +66,33 @@ public class JSONList<T> extends ArrayList<T> {
 		return j;
 	}
 
+	@Nonnull
+	public static JSONList<Integer> ofIntArray(@Nonnull int... values) {
+		JSONList<Integer> j = new JSONList<>(Integer.class);
+		j.storage = INTS;
+		j.ints = values.clone();
+		j.size = values.length;
+		return j;
+	}
+
+	@Nonnull
+	public static JSONList<Long> ofLongArray(@Nonnull long... values) {
+		JSONList<Long> j = new JSONList<>(Long.class);
+		j.storage = LONGS;
+		j.longs = values.clone();
+		j.size = values.length;
+		return j;
+	}
+
+	@Nonnull
+	public static JSONList<Double> ofDoubleArray(@Nonnull double... values) {
+		JSONList<Double> j = new JSONList<>(Double.class);
+		j.ensureCapacity(values.length);
+		for (double value : values)
+			j.addDouble(value);
+		return j;
+	}
+
 	@Nullable
 	protected static Object prepareObject(@Nullable Object o) {
 		return JSONObject.prepareObject(o);
@@ -43,6 +106,19 @@ public class JSONList<T> extends ArrayList<T> {
 			ret.add((T)prepareObject(o));
 		return ret;
 	}
+
+	@Nullable
+	protected Object prepareValue(@Nullable Object o) {
+		return JSONObject.prepareObject(o, clazz == null ? numberMode : JSONParser.NumberMode.Exact);
+	}
+
+	@Nonnull
+	protected List<Object> prepareValues(@Nonnull Collection<?> c) {
+		List<Object> ret = new ArrayList<>();
+		for (Object o : c)
+			ret.add(prepareValue(o));
+		return ret;
+	}
 	
 	public JSONList() {
 		super();
@@ -67,14 +143,101 @@ public class JSONList<T> extends ArrayList<T> {
 	@Override
 	@Nonnull
 	public String toString() {
-		return new JSONPrettyPrinter().toString(this);
+		return JSONPrettyPrinter.SHARED.toString(this);
+	}
+
+	@Nonnull
+	public JSONParser.NumberMode getNumberMode() {
+		return numberMode;
+	}
+
+	@Nonnull
+	public JSONList<T> setNumberMode(@Nonnull JSONParser.NumberMode numberMode) {
+		this.numberMode = numberMode;
+		return this;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean contains(@Nullable Object o) {
+		return indexOf(o) != -1;
+	}
+
+	@Override
+	public int indexOf(@Nullable Object o) {
+		for (int i = 0; i < size; i++) {
+			if (Objects.equals(o, get(i)))
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(@Nullable Object o) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (Objects.equals(o, get(i)))
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	@Nonnull
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		for (int i = 0; i < size; i++)
+			array[i] = get(i);
+		return array;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nonnull
+	public <E> E[] toArray(@Nonnull E[] a) {
+		E[] array = a.length >= size ? a : (E[])java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+		for (int i = 0; i < size; i++)
+			array[i] = (E)get(i);
+		if (array.length > size)
+			array[size] = null;
+		return array;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof List<?>))
+			return false;
+		Iterator<?> iterator = ((List<?>)o).iterator();
+		for (int i = 0; i < size; i++) {
+			if (!iterator.hasNext() || !Objects.equals(get(i), iterator.next()))
+				return false;
+		}
+		return !iterator.hasNext();
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < size; i++)
+			hash = 31 * hash + Objects.hashCode(get(i));
+		return hash;
 	}
 	
 	@SuppressWarnings("unchecked")
 	@Override
 	@Nullable
 	public T get(int index) {
-		if (clazz != null) {
+		if (clazz != null && !isNull(index)) {
 			if (clazz == Integer.class)
 				return (T)(Integer)getInt(index);
 			else if (clazz == Long.class)
@@ -84,20 +247,244 @@ public class JSONList<T> extends ArrayList<T> {
 			else if (clazz == Double.class)
 				return (T)(Double)getDouble(index);
 		}
-		return super.get(index);
+		return (T)getRaw(index);
+	}
+
+	protected void rangeCheck(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+	}
+
+	@Nullable
+	protected Object getRaw(int index) {
+		rangeCheck(index);
+		switch (storage) {
+			case INTS:
+				return box(ints[index]);
+			case LONGS:
+				return box(longs[index]);
+			case DOUBLES:
+				return box(doubles[index]);
+			default:
+				return elements[index];
+		}
+	}
+
+	@Nonnull
+	protected Object box(long value) {
+		return clazz == null ? JSONNumber.of(value) : BigInteger.valueOf(value);
+	}
+
+	@Nonnull
+	protected Object box(double value) {
+		return clazz == null ? JSONNumber.of(value) : BigDecimal.valueOf(value);
+	}
+
+	protected byte getStorage(@Nullable Object o) {
+		if (clazz == null) {
+			if (o instanceof JSONNumber.LongValue) {
+				long value = ((JSONNumber.LongValue)o).value;
+				return value == (int)value ? INTS : LONGS;
+			} else if (o instanceof JSONNumber.DoubleValue) {
+				return DOUBLES;
+			}
+		} else if (o instanceof BigInteger) {
+			int bits = ((BigInteger)o).bitLength();
+			return bits < 32 ? INTS : (bits < 64 ? LONGS : OBJECTS);
+		} else if (o instanceof BigDecimal) {
+			double value = ((BigDecimal)o).doubleValue();
+			if (!Double.isInfinite(value) && BigDecimal.valueOf(value).equals(o))
+				return DOUBLES;
+		}
+		return OBJECTS;
+	}
+
+	protected static boolean isLiteral(@Nullable Object o) {
+		return o instanceof String || o instanceof Boolean || o instanceof BigInteger || o instanceof BigDecimal || o instanceof JSONNumber;
+	}
+
+	protected static byte mergeStorage(byte a, byte b) {
+		if (a == b)
+			return a;
+		if ((a == INTS || a == LONGS) && (b == INTS || b == LONGS))
+			return LONGS;
+		return OBJECTS;
+	}
+
+	@Nonnull
+	protected Object getArray() {
+		switch (storage) {
+			case INTS:
+				return ints;
+			case LONGS:
+				return longs;
+			case DOUBLES:
+				return doubles;
+			default:
+				return elements;
+		}
+	}
+
+	protected int getCapacity() {
+		switch (storage) {
+			case INTS:
+				return ints.length;
+			case LONGS:
+				return longs.length;
+			case DOUBLES:
+				return doubles.length;
+			default:
+				return elements.length;
+		}
+	}
+
+	protected void adapt(byte required) {
+		if (storage == required || (storage == LONGS && required == INTS) || (storage == OBJECTS && size != 0))
+			return;
+		int capacity = getCapacity();
+		if (storage == INTS && required == LONGS) {
+			long[] longs = new long[capacity];
+			for (int i = 0; i < size; i++)
+				longs[i] = ints[i];
+			this.longs = longs;
+			ints = null;
+			storage = LONGS;
+			return;
+		}
+
+		byte target = size == 0 ? required : OBJECTS;
+		Object[] elements = target == OBJECTS ? new Object[capacity] : EMPTY;
+		for (int i = 0; i < size; i++)
+			elements[i] = getRaw(i);
+		this.elements = elements;
+		ints = target == INTS ? new int[capacity] : null;
+		longs = target == LONGS ? new long[capacity] : null;
+		doubles = target == DOUBLES ? new double[capacity] : null;
+		storage = target;
+	}
+
+	protected void grow(int minCapacity) {
+		int capacity = getCapacity();
+		if (minCapacity <= capacity)
+			return;
+		int newCapacity = Math.max(Math.max(capacity + (capacity >> 1), minCapacity), 10);
+		switch (storage) {
+			case INTS:
+				ints = Arrays.copyOf(ints, newCapacity);
+				break;
+			case LONGS:
+				longs = Arrays.copyOf(longs, newCapacity);
+				break;
+			case DOUBLES:
+				doubles = Arrays.copyOf(doubles, newCapacity);
+				break;
+			default:
+				elements = Arrays.copyOf(elements, newCapacity);
+				break;
+		}
+	}
+
+	protected void store(int index, @Nullable Object o) {
+		switch (storage) {
+			case INTS:
+				ints[index] = ((Number)o).intValue();
+				break;
+			case LONGS:
+				longs[index] = ((Number)o).longValue();
+				break;
+			case DOUBLES:
+				doubles[index] = ((Number)o).doubleValue();
+				break;
+			default:
+				elements[index] = o;
+				if (!isLiteral(o)) {
+					nonLiterals++;
+					JSONNodeState.attach(o, this);
+				}
+				break;
+		}
+	}
+
+	@Override
+	public void ensureCapacity(int minCapacity) {
+		grow(minCapacity);
+	}
+
+	@Override
+	public void trimToSize() {
+		if (size == getCapacity())
+			return;
+		switch (storage) {
+			case INTS:
+				ints = Arrays.copyOf(ints, size);
+				break;
+			case LONGS:
+				longs = Arrays.copyOf(longs, size);
+				break;
+			case DOUBLES:
+				doubles = Arrays.copyOf(doubles, size);
+				break;
+			default:
+				elements = size == 0 ? EMPTY : Arrays.copyOf(elements, size);
+				break;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	@Nonnull
+	public JSONList<T> clone() {
+		JSONList<T> j = (JSONList<T>)super.clone();
+		j.elements = elements.length == 0 ? EMPTY : elements.clone();
+		if (ints != null)
+			j.ints = ints.clone();
+		if (longs != null)
+			j.longs = longs.clone();
+		if (doubles != null)
+			j.doubles = doubles.clone();
+		j.state = null;
+		return j;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readObject(@Nonnull ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (numberMode == null)
+			numberMode = JSONParser.NumberMode.Exact;
+		if (elements == null) {
+			elements = EMPTY;
+			List<Object> legacy = new ArrayList<>();
+			for (int i = 0; i < super.size(); i++)
+				legacy.add(super.get(i));
+			super.clear();
+			addAll((Collection<? extends T>)legacy);
+		}
+	}
+	
+	protected void changed() {
+		if (state != null)
+			JSONNodeState.invalidate(state);
+	}
+
+	protected void attachChildren() {
+		if (storage != OBJECTS || nonLiterals == 0)
+			return;
+		for (int i = 0; i < size; i++)
+			JSONNodeState.attach(elements[i], this);
 	}
 	
 	public boolean isNull(int index) {
-		return get(index) == null;
+		rangeCheck(index);
+		return storage == OBJECTS && elements[index] == null;
 	}
 
 	public boolean isBool(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		return o instanceof Boolean;
 	}
 	
 	public boolean getBool(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		if (o instanceof Boolean)
 			return (Boolean)o;
 		throw new ClassCastException();
@@ -109,15 +496,21 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 
 	public boolean isInteger(int index) {
-		Object o = super.get(index);
-		return o instanceof BigInteger;
+		if (storage != OBJECTS) {
+			rangeCheck(index);
+			return storage != DOUBLES;
+		}
+		Object o = getRaw(index);
+		return o instanceof BigInteger || (o instanceof JSONNumber && ((JSONNumber)o).isInteger());
 	}
 
 	@Nonnull
 	public BigInteger getBigInt(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		if (o instanceof BigInteger)
 			return (BigInteger)o;
+		else if (o instanceof JSONNumber)
+			return ((JSONNumber)o).bigIntegerValue();
 		throw new ClassCastException();
 	}
 
@@ -127,7 +520,22 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 	
 	public int getInt(int index) {
-		return getBigInt(index).intValueExact();
+		rangeCheck(index);
+		switch (storage) {
+			case INTS:
+				return ints[index];
+			case LONGS:
+				return Math.toIntExact(longs[index]);
+			case DOUBLES:
+				throw new ClassCastException();
+			default:
+				Object o = elements[index];
+				if (o instanceof JSONNumber)
+					return ((JSONNumber)o).intValueExact();
+				else if (o instanceof BigInteger)
+					return ((BigInteger)o).intValueExact();
+				throw new ClassCastException();
+		}
 	}
 
 	@Nullable
@@ -136,7 +544,22 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 	
 	public long getLong(int index) {
-		return getBigInt(index).longValueExact();
+		rangeCheck(index);
+		switch (storage) {
+			case INTS:
+				return ints[index];
+			case LONGS:
+				return longs[index];
+			case DOUBLES:
+				throw new ClassCastException();
+			default:
+				Object o = elements[index];
+				if (o instanceof JSONNumber)
+					return ((JSONNumber)o).longValueExact();
+				else if (o instanceof BigInteger)
+					return ((BigInteger)o).longValueExact();
+				throw new ClassCastException();
+		}
 	}
 
 	@Nullable
@@ -145,17 +568,23 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 
 	public boolean isDecimal(int index) {
-		Object o = super.get(index);
-		return o instanceof BigDecimal;
+		if (storage != OBJECTS) {
+			rangeCheck(index);
+			return storage == DOUBLES;
+		}
+		Object o = getRaw(index);
+		return o instanceof BigDecimal || (o instanceof JSONNumber && !((JSONNumber)o).isInteger());
 	}
 
 	@Nonnull
 	public BigDecimal getBigDecimal(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		if (o instanceof BigDecimal)
 			return (BigDecimal)o;
 		else if (o instanceof BigInteger)
 			return new BigDecimal((BigInteger)o);
+		else if (o instanceof JSONNumber)
+			return ((JSONNumber)o).bigDecimalValue();
 		throw new ClassCastException();
 	}
 
@@ -165,6 +594,11 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 	
 	public float getFloat(int index) {
+		if (storage != OBJECTS)
+			return (float)getDouble(index);
+		Object o = getRaw(index);
+		if (o instanceof JSONNumber)
+			return ((JSONNumber)o).floatValue();
 		return getBigDecimal(index).floatValue();
 	}
 
@@ -174,7 +608,20 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 	
 	public double getDouble(int index) {
-		return getBigDecimal(index).doubleValue();
+		rangeCheck(index);
+		switch (storage) {
+			case INTS:
+				return ints[index];
+			case LONGS:
+				return longs[index];
+			case DOUBLES:
+				return doubles[index];
+			default:
+				Object o = elements[index];
+				if (o instanceof JSONNumber)
+					return ((JSONNumber)o).doubleValue();
+				return getBigDecimal(index).doubleValue();
+		}
 	}
 
 	@Nullable
@@ -182,14 +629,71 @@ public class JSONList<T> extends ArrayList<T> {
 		return isNull(index) ? null : getDouble(index);
 	}
 
+	@Nonnull
+	public IntStream intStream() {
+		if (storage == INTS)
+			return Arrays.stream(ints, 0, size);
+		return IntStream.range(0, size).map(this::getInt);
+	}
+
+	@Nonnull
+	public LongStream longStream() {
+		if (storage == INTS)
+			return Arrays.stream(ints, 0, size).asLongStream();
+		else if (storage == LONGS)
+			return Arrays.stream(longs, 0, size);
+		return IntStream.range(0, size).mapToLong(this::getLong);
+	}
+
+	@Nonnull
+	public DoubleStream doubleStream() {
+		if (storage == INTS)
+			return Arrays.stream(ints, 0, size).asDoubleStream();
+		else if (storage == LONGS)
+			return Arrays.stream(longs, 0, size).asDoubleStream();
+		else if (storage == DOUBLES)
+			return Arrays.stream(doubles, 0, size);
+		return IntStream.range(0, size).mapToDouble(this::getDouble);
+	}
+
+	@Nonnull
+	public int[] toIntArray() {
+		if (storage == INTS)
+			return Arrays.copyOf(ints, size);
+		int[] array = new int[size];
+		for (int i = 0; i < size; i++)
+			array[i] = getInt(i);
+		return array;
+	}
+
+	@Nonnull
+	public long[] toLongArray() {
+		if (storage == LONGS)
+			return Arrays.copyOf(longs, size);
+		long[] array = new long[size];
+		for (int i = 0; i < size; i++)
+			array[i] = getLong(i);
+		return array;
+	}
+
+	@Nonnull
+	public double[] toDoubleArray() {
+		if (storage == DOUBLES)
+			return Arrays.copyOf(doubles, size);
+		double[] array = new double[size];
+		for (int i = 0; i < size; i++)
+			array[i] = getDouble(i);
+		return array;
+	}
+
 	public boolean isString(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		return o instanceof String;
 	}
 
 	@Nonnull
 	public String getString(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		if (o instanceof String)
 			return (String)o;
 		throw new ClassCastException();
@@ -201,13 +705,13 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 
 	public boolean isObject(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		return o instanceof JSONObject;
 	}
 
 	@Nonnull
 	public JSONObject getObject(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		if (o instanceof JSONObject)
 			return (JSONObject)o;
 		throw new ClassCastException();
@@ -219,13 +723,13 @@ public class JSONList<T> extends ArrayList<T> {
 	}
 
 	public boolean isList(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		return o instanceof JSONList<?>;
 	}
 
 	@Nonnull
 	public JSONList<?> getList(int index) {
-		Object o = super.get(index);
+		Object o = getRaw(index);
 		if (o instanceof JSONList<?>)
 			return (JSONList<?>)o;
 		throw new ClassCastException();
@@ -271,8 +775,9 @@ public class JSONList<T> extends ArrayList<T> {
 	@Nonnull
 	public JSONList<Integer> ofInts() {
 		JSONList<Integer> j = new JSONList<>(Integer.class);
-		for (int i = 0; i < size(); i++)
-			j.add(getInt(i));
+		j.ensureCapacity(size);
+		for (int i = 0; i < size; i++)
+			j.addInt(getInt(i));
 		return j;
 	}
 
@@ -287,8 +792,9 @@ public class JSONList<T> extends ArrayList<T> {
 	@Nonnull
 	public JSONList<Long> ofLongs() {
 		JSONList<Long> j = new JSONList<>(Long.class);
-		for (int i = 0; i < size(); i++)
-			j.add(getLong(i));
+		j.ensureCapacity(size);
+		for (int i = 0; i < size; i++)
+			j.addLong(getLong(i));
 		return j;
 	}
 
@@ -319,8 +825,9 @@ public class JSONList<T> extends ArrayList<T> {
 	@Nonnull
 	public JSONList<Float> ofFloats() {
 		JSONList<Float> j = new JSONList<>(Float.class);
-		for (int i = 0; i < size(); i++)
-			j.add(getFloat(i));
+		j.ensureCapacity(size);
+		for (int i = 0; i < size; i++)
+			j.addDouble(getFloat(i));
 		return j;
 	}
 
@@ -335,8 +842,9 @@ public class JSONList<T> extends ArrayList<T> {
 	@Nonnull
 	public JSONList<Double> ofDoubles() {
 		JSONList<Double> j = new JSONList<>(Double.class);
-		for (int i = 0; i < size(); i++)
-			j.add(getDouble(i));
+		j.ensureCapacity(size);
+		for (int i = 0; i < size; i++)
+			j.addDouble(getDouble(i));
 		return j;
 	}
 
@@ -399,7 +907,7 @@ public class JSONList<T> extends ArrayList<T> {
 	@SuppressWarnings("unchecked")
 	@Nonnull
 	public JSONObject addNewObject() {
-		JSONObject j = new JSONObject();
+		JSONObject j = new JSONObject().setNumberMode(numberMode);
 		add((T)j);
 		return j;
 	}
@@ -407,34 +915,438 @@ public class JSONList<T> extends ArrayList<T> {
 	@SuppressWarnings("unchecked")
 	@Nonnull
 	public JSONList<?> addNewList() {
-		JSONList<Object> j = new JSONList<>();
+		JSONList<Object> j = new JSONList<>().setNumberMode(numberMode);
 		add((T)j);
 		return j;
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public boolean add(@Nullable T e) {
-		return super.add((T)prepareObject(e));
+		Object o = prepareValue(e);
+		adapt(getStorage(o));
+		grow(size + 1);
+		store(size++, o);
+		modCount++;
+		changed();
+		return true;
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Override
 	public void add(int index, @Nullable T element) {
-		super.add(index, (T)prepareObject(element));
+		addAll(index, Collections.singletonList(element));
 	}
 	
 	@Override
 	public boolean addAll(@Nonnull Collection<? extends T> c) {
-		return super.addAll(prepareObjects(c));
+		return addAll(size, c);
 	}
 	
 	@Override
 	public boolean addAll(int index, @Nonnull Collection<? extends T> c) {
-		return super.addAll(index, prepareObjects(c));
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		List<Object> prepared = prepareValues(c);
+		if (prepared.isEmpty())
+			return false;
+		byte required = getStorage(prepared.get(0));
+		for (int i = 1; i < prepared.size() && required != OBJECTS; i++)
+			required = mergeStorage(required, getStorage(prepared.get(i)));
+		adapt(required);
+		grow(size + prepared.size());
+		Object array = getArray();
+		System.arraycopy(array, index, array, index + prepared.size(), size - index);
+		for (Object o : prepared)
+			store(index++, o);
+		size += prepared.size();
+		modCount++;
+		changed();
+		return true;
+	}
+
+	public void addInt(int value) {
+		addLong(value);
+	}
+
+	public void addLong(long value) {
+		adapt(value == (int)value ? INTS : LONGS);
+		grow(size + 1);
+		switch (storage) {
+			case INTS:
+				ints[size] = (int)value;
+				break;
+			case LONGS:
+				longs[size] = value;
+				break;
+			default:
+				elements[size] = box(value);
+				break;
+		}
+		size++;
+		modCount++;
+		changed();
+	}
+
+	public void addDouble(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			throw new NumberFormatException(String.format("Invalid number '%s'", value));
+		adapt(DOUBLES);
+		grow(size + 1);
+		if (storage == DOUBLES)
+			doubles[size] = value;
+		else
+			elements[size] = box(value);
+		size++;
+		modCount++;
+		changed();
+	}
+
+	@Override
+	@Nullable
+	public T set(int index, @Nullable T element) {
+		T old = get(index);
+		Object o = prepareValue(element);
+		adapt(getStorage(o));
+		if (storage == OBJECTS && !isLiteral(elements[index])) {
+			nonLiterals--;
+			JSONNodeState.detach(elements[index], this);
+		}
+		store(index, o);
+		changed();
+		return old;
+	}
+
+	@Override
+	@Nullable
+	public T remove(int index) {
+		T old = get(index);
+		removeRange(index, index + 1);
+		return old;
+	}
+
+	@Override
+	public boolean remove(@Nullable Object o) {
+		int index = indexOf(o);
+		if (index == -1)
+			return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		removeRange(0, size);
+	}
+
+	@Override
+	public boolean removeAll(@Nonnull Collection<?> c) {
+		Objects.requireNonNull(c);
+		return removeMatching(c, false);
+	}
+
+	@Override
+	public boolean retainAll(@Nonnull Collection<?> c) {
+		Objects.requireNonNull(c);
+		return removeMatching(c, true);
+	}
+
+	protected boolean removeMatching(@Nonnull Collection<?> c, boolean retain) {
+		boolean modified = false;
+		for (int i = size - 1; i >= 0; i--) {
+			if (c.contains(get(i)) != retain) {
+				remove(i);
+				modified = true;
+			}
+		}
+		return modified;
+	}
+
+	@Override
+	public boolean removeIf(@Nonnull Predicate<? super T> filter) {
+		boolean modified = false;
+		for (int i = size - 1; i >= 0; i--) {
+			if (filter.test(get(i))) {
+				remove(i);
+				modified = true;
+			}
+		}
+		return modified;
+	}
+
+	@Override
+	public void forEach(@Nonnull Consumer<? super T> action) {
+		int expectedModCount = modCount;
+		for (int i = 0; i < size && modCount == expectedModCount; i++)
+			action.accept(get(i));
+		if (modCount != expectedModCount)
+			throw new ConcurrentModificationException();
+	}
+
+	@Override
+	public void replaceAll(@Nonnull UnaryOperator<T> operator) {
+		for (int i = 0; i < size; i++)
+			set(i, operator.apply(get(i)));
+		modCount++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void sort(@Nullable Comparator<? super T> c) {
+		Object[] array = toArray();
+		Arrays.sort(array, (Comparator<Object>)c);
+		for (int i = 0; i < array.length; i++)
+			set(i, (T)array[i]);
+		modCount++;
+	}
+
+	@Override
+	@Nonnull
+	public Iterator<T> iterator() {
+		return new ListItr(0);
+	}
+
+	@Override
+	@Nonnull
+	public ListIterator<T> listIterator() {
+		return new ListItr(0);
+	}
+
+	@Override
+	@Nonnull
+	public ListIterator<T> listIterator(int index) {
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		return new ListItr(index);
+	}
+
+	@Override
+	@Nonnull
+	public Spliterator<T> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED);
+	}
+
+	@Override
+	@Nonnull
+	public List<T> subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex)
+			throw new IndexOutOfBoundsException(String.format("From: %d, To: %d, Size: %d", fromIndex, toIndex, size));
+		return new SubList(fromIndex, toIndex);
+	}
+
+	@Nullable
+	public T getFirst() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return get(0);
+	}
+
+	@Nullable
+	public T getLast() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return get(size - 1);
+	}
+
+	@Nullable
+	public T removeFirst() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return remove(0);
+	}
+
+	@Nullable
+	public T removeLast() {
+		if (size == 0)
+			throw new NoSuchElementException();
+		return remove(size - 1);
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (storage == OBJECTS && nonLiterals != 0) {
+			for (int i = fromIndex; i < toIndex; i++) {
+				if (!isLiteral(elements[i])) {
+					nonLiterals--;
+					JSONNodeState.detach(elements[i], this);
+				}
+			}
+		}
+		Object array = getArray();
+		System.arraycopy(array, toIndex, array, fromIndex, size - toIndex);
+		if (storage == OBJECTS)
+			Arrays.fill(elements, size - (toIndex - fromIndex), size, null);
+		size -= toIndex - fromIndex;
+		modCount++;
+		changed();
 	}
 
 	public boolean isNumber(int index) {
 		return isInteger(index) || isDecimal(index);
 	}
-}
\ No newline at end of file
+
+	protected class ListItr implements ListIterator<T> {
+		protected int cursor;
+		protected int last = -1;
+		protected int expectedModCount = modCount;
+
+		protected ListItr(int index) {
+			cursor = index;
+		}
+
+		protected void checkForComodification() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		@Nullable
+		public T next() {
+			checkForComodification();
+			if (cursor >= size)
+				throw new NoSuchElementException();
+			last = cursor++;
+			return get(last);
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		@Override
+		@Nullable
+		public T previous() {
+			checkForComodification();
+			if (cursor <= 0)
+				throw new NoSuchElementException();
+			last = --cursor;
+			return get(last);
+		}
+
+		@Override
+		public int nextIndex() {
+			return cursor;
+		}
+
+		@Override
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		@Override
+		public void remove() {
+			if (last == -1)
+				throw new IllegalStateException();
+			checkForComodification();
+			JSONList.this.remove(last);
+			cursor = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+
+		@Override
+		public void set(@Nullable T e) {
+			if (last == -1)
+				throw new IllegalStateException();
+			checkForComodification();
+			JSONList.this.set(last, e);
+		}
+
+		@Override
+		public void add(@Nullable T e) {
+			checkForComodification();
+			JSONList.this.add(cursor++, e);
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	protected class SubList extends AbstractList<T> implements RandomAccess {
+		protected final int offset;
+		protected int size;
+		protected int expectedModCount = JSONList.this.modCount;
+
+		protected SubList(int fromIndex, int toIndex) {
+			offset = fromIndex;
+			size = toIndex - fromIndex;
+		}
+
+		protected void checkForComodification() {
+			if (JSONList.this.modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+		}
+
+		protected void rangeCheck(int index, int limit) {
+			if (index < 0 || index >= limit)
+				throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		}
+
+		protected void updated(int delta) {
+			expectedModCount = JSONList.this.modCount;
+			size += delta;
+			modCount++;
+		}
+
+		@Override
+		public int size() {
+			checkForComodification();
+			return size;
+		}
+
+		@Override
+		@Nullable
+		public T get(int index) {
+			rangeCheck(index, size);
+			checkForComodification();
+			return JSONList.this.get(offset + index);
+		}
+
+		@Override
+		@Nullable
+		public T set(int index, @Nullable T element) {
+			rangeCheck(index, size);
+			checkForComodification();
+			return JSONList.this.set(offset + index, element);
+		}
+
+		@Override
+		public void add(int index, @Nullable T element) {
+			rangeCheck(index, size + 1);
+			checkForComodification();
+			JSONList.this.add(offset + index, element);
+			updated(1);
+		}
+
+		@Override
+		public boolean addAll(int index, @Nonnull Collection<? extends T> c) {
+			rangeCheck(index, size + 1);
+			checkForComodification();
+			int before = JSONList.this.size;
+			if (!JSONList.this.addAll(offset + index, c))
+				return false;
+			updated(JSONList.this.size - before);
+			return true;
+		}
+
+		@Override
+		@Nullable
+		public T remove(int index) {
+			rangeCheck(index, size);
+			checkForComodification();
+			T old = JSONList.this.remove(offset + index);
+			updated(-1);
+			return old;
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			checkForComodification();
+			JSONList.this.removeRange(offset + fromIndex, offset + toIndex);
+			updated(fromIndex - toIndex);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class JSONMappedFileSource extends JSONByteBufferSource {
+	public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+	@Nonnull public final FileChannel channel;
+	public final long size;
+	public final long windowSize;
+	protected long mapped;
+
+	public JSONMappedFileSource(@Nonnull Path path) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ), DEFAULT_WINDOW_SIZE);
+	}
+
+	public JSONMappedFileSource(@Nonnull FileChannel channel, long windowSize) throws IOException {
+		super(DEFAULT_BUFFER_SIZE);
+		if (windowSize <= 0 || windowSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException();
+		this.channel = channel;
+		this.size = channel.size();
+		this.windowSize = windowSize;
+		skipByteOrderMark();
+	}
+
+	@Override
+	protected boolean nextInput() {
+		if (mapped >= size)
+			return false;
+		long length = Math.min(windowSize, size - mapped);
+		try {
+			input = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		mapped += length;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			channel.close();
+		} finally {
+			super.close();
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+public final class JSONNodeState {
+	@Nonnull protected static final AtomicReferenceFieldUpdater<JSONObject, JSONNodeState> OBJECT_STATE = AtomicReferenceFieldUpdater.newUpdater(JSONObject.class, JSONNodeState.class, "state");
+	@SuppressWarnings("rawtypes")
+	@Nonnull protected static final AtomicReferenceFieldUpdater<JSONList, JSONNodeState> LIST_STATE = AtomicReferenceFieldUpdater.newUpdater(JSONList.class, JSONNodeState.class, "state");
+
+	@Nullable protected volatile Object parents;
+	@Nullable protected volatile Form form;
+
+	@Nullable
+	protected JSONFragment getForm(boolean escapeNonAscii) {
+		Form form = this.form;
+		return form != null && form.escapesNonAscii == escapeNonAscii ? form.fragment : null;
+	}
+
+	protected void setForm(@Nullable JSONFragment fragment, boolean escapeNonAscii) {
+		form = new Form(fragment, escapeNonAscii);
+	}
+
+	@Nullable
+	protected static JSONNodeState of(@Nullable Object node, boolean create) {
+		if (node instanceof JSONObject) {
+			JSONObject j = (JSONObject)node;
+			JSONNodeState state = j.state;
+			if (state == null && create) {
+				OBJECT_STATE.compareAndSet(j, null, new JSONNodeState());
+				state = j.state;
+			}
+			return state;
+		} else if (node instanceof JSONList<?>) {
+			JSONList<?> j = (JSONList<?>)node;
+			JSONNodeState state = j.state;
+			if (state == null && create) {
+				LIST_STATE.compareAndSet(j, null, new JSONNodeState());
+				state = j.state;
+			}
+			return state;
+		}
+		return null;
+	}
+
+	protected static void attach(@Nullable Object child, @Nonnull Object parent) {
+		if (of(parent, false) == null)
+			return;
+		JSONNodeState state = of(child, true);
+		if (state == null)
+			return;
+		synchronized (state) {
+			Object parents = state.parents;
+			if (parents == null) {
+				state.parents = parent;
+			} else if (parents == parent) {
+				return;
+			} else if (parents instanceof Object[]) {
+				Object[] array = (Object[])parents;
+				for (Object o : array) {
+					if (o == parent)
+						return;
+				}
+				Object[] newArray = new Object[array.length + 1];
+				System.arraycopy(array, 0, newArray, 0, array.length);
+				newArray[array.length] = parent;
+				state.parents = newArray;
+			} else {
+				state.parents = new Object[] { parents, parent };
+			}
+		}
+	}
+
+	protected static void detach(@Nullable Object child, @Nonnull Object parent) {
+		JSONNodeState state = of(child, false);
+		if (state == null)
+			return;
+		synchronized (state) {
+			Object parents = state.parents;
+			if (parents == parent) {
+				state.parents = null;
+			} else if (parents instanceof Object[]) {
+				Object[] array = (Object[])parents;
+				for (int i = 0; i < array.length; i++) {
+					if (array[i] != parent)
+						continue;
+					if (array.length == 2) {
+						state.parents = array[1 - i];
+					} else {
+						Object[] newArray = new Object[array.length - 1];
+						System.arraycopy(array, 0, newArray, 0, i);
+						System.arraycopy(array, i + 1, newArray, i, newArray.length - i);
+						state.parents = newArray;
+					}
+					return;
+				}
+			}
+		}
+	}
+
+	protected static void invalidate(@Nullable JSONNodeState state) {
+		while (state != null && state.form != null) {
+			state.form = null;
+			Object parents = state.parents;
+			if (parents instanceof Object[]) {
+				for (Object parent : (Object[])parents)
+					invalidate(of(parent, false));
+				return;
+			}
+			state = of(parents, false);
+		}
+	}
+
+	protected static final class Form {
+		@Nullable protected final JSONFragment fragment;
+		protected final boolean escapesNonAscii;
+
+		protected Form(@Nullable JSONFragment fragment, boolean escapesNonAscii) {
+			this.fragment = fragment;
+			this.escapesNonAscii = escapesNonAscii;
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+public abstract class JSONNumber extends Number {
+	private static final long serialVersionUID = -2203468407393419361L;
+
+	protected static final int CACHE_LOW = -128;
+	protected static final int CACHE_HIGH = 1023;
+	private static final LongValue[] cache = new LongValue[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < cache.length; i++)
+			cache[i] = new LongValue(i + CACHE_LOW);
+	}
+
+	@Nonnull
+	public static JSONNumber of(long value) {
+		if (value >= CACHE_LOW && value <= CACHE_HIGH)
+			return cache[(int)value - CACHE_LOW];
+		return new LongValue(value);
+	}
+
+	@Nonnull
+	public static JSONNumber of(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			throw new NumberFormatException(String.format("Invalid number '%s'", value));
+		return new DoubleValue(value);
+	}
+
+	@Nonnull
+	public static JSONNumber parse(@Nonnull String text) {
+		JSONStringSource source = new JSONStringSource(text);
+		try {
+			JSONSource.Literal kind = source.readLiteral();
+			if (source.peek() != JSONSource.EOF || (kind != JSONSource.Literal.Integer && kind != JSONSource.Literal.Decimal))
+				throw new NumberFormatException(String.format("Invalid number '%s'", text));
+			return ofText(source.literal, source.literalLength, kind == JSONSource.Literal.Integer);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	@Nonnull
+	protected static JSONNumber ofText(@Nonnull char[] chars, int length, boolean integer) {
+		char[] text;
+		if (isStrict(chars, length)) {
+			text = new char[length];
+			System.arraycopy(chars, 0, text, 0, length);
+		} else {
+			String s = new String(chars, 0, length);
+			text = (integer ? new BigInteger(s).toString() : new BigDecimal(s).toString()).toCharArray();
+		}
+		return new Text(text, integer);
+	}
+
+	protected static boolean isStrict(@Nonnull char[] chars, int length) {
+		int i = 0;
+		if (chars[i] == '-')
+			i++;
+		if (i == length || !JSONSource.isDigit(chars[i]))
+			return false;
+		if (chars[i] == '0' && i + 1 < length && JSONSource.isDigit(chars[i + 1]))
+			return false;
+		while (i < length && JSONSource.isDigit(chars[i]))
+			i++;
+		if (i < length && chars[i] == '.') {
+			i++;
+			if (i == length || !JSONSource.isDigit(chars[i]))
+				return false;
+		}
+		return true;
+	}
+
+	public abstract boolean isInteger();
+
+	public abstract long longValueExact();
+
+	public int intValueExact() {
+		return Math.toIntExact(longValueExact());
+	}
+
+	@Nonnull
+	public abstract BigInteger bigIntegerValue();
+
+	@Nonnull
+	public abstract BigDecimal bigDecimalValue();
+
+	@Override
+	public int intValue() {
+		return (int)longValue();
+	}
+
+	@Override
+	public float floatValue() {
+		return (float)doubleValue();
+	}
+
+	@Override
+	public boolean equals(@Nullable Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof JSONNumber))
+			return false;
+		JSONNumber other = (JSONNumber)o;
+		if (isInteger() != other.isInteger())
+			return false;
+		if (isInteger())
+			return bigIntegerValue().equals(other.bigIntegerValue());
+		return bigDecimalValue().equals(other.bigDecimalValue());
+	}
+
+	@Override
+	public int hashCode() {
+		return isInteger() ? bigIntegerValue().hashCode() : bigDecimalValue().hashCode();
+	}
+
+	protected static final class Text extends JSONNumber {
+		private static final long serialVersionUID = 6019964731806187069L;
+
+		@Nonnull protected final char[] text;
+		protected final boolean integer;
+
+		protected Text(@Nonnull char[] text, boolean integer) {
+			this.text = text;
+			this.integer = integer;
+		}
+
+		@Override
+		public boolean isInteger() {
+			return integer;
+		}
+
+		@Override
+		public long longValueExact() {
+			if (!integer)
+				throw new ClassCastException();
+			if (text.length <= 18)
+				return JSONSource.parseSmallLong(text, text.length);
+			return bigIntegerValue().longValueExact();
+		}
+
+		@Override
+		public long longValue() {
+			if (!integer)
+				return (long)doubleValue();
+			if (text.length <= 18)
+				return JSONSource.parseSmallLong(text, text.length);
+			return bigIntegerValue().longValue();
+		}
+
+		@Override
+		public double doubleValue() {
+			return JSONSource.parseDouble(text, text.length);
+		}
+
+		@Nonnull
+		@Override
+		public BigInteger bigIntegerValue() {
+			if (!integer)
+				throw new ClassCastException();
+			if (text.length <= 18)
+				return BigInteger.valueOf(JSONSource.parseSmallLong(text, text.length));
+			return new BigInteger(toString());
+		}
+
+		@Nonnull
+		@Override
+		public BigDecimal bigDecimalValue() {
+			return new BigDecimal(text);
+		}
+
+		@Nonnull
+		@Override
+		public String toString() {
+			return new String(text);
+		}
+	}
+
+	protected static final class LongValue extends JSONNumber {
+		private static final long serialVersionUID = -4591618216830394853L;
+
+		protected final long value;
+
+		protected LongValue(long value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean isInteger() {
+			return true;
+		}
+
+		@Override
+		public long longValueExact() {
+			return value;
+		}
+
+		@Override
+		public long longValue() {
+			return value;
+		}
+
+		@Override
+		public double doubleValue() {
+			return value;
+		}
+
+		@Nonnull
+		@Override
+		public BigInteger bigIntegerValue() {
+			return BigInteger.valueOf(value);
+		}
+
+		@Nonnull
+		@Override
+		public BigDecimal bigDecimalValue() {
+			return BigDecimal.valueOf(value);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object o) {
+			if (o instanceof LongValue)
+				return value == ((LongValue)o).value;
+			return super.equals(o);
+		}
+
+		@Override
+		public int hashCode() {
+			long magnitude = Math.abs(value);
+			int high = (int)(magnitude >>> 32);
+			int low = (int)magnitude;
+			int hash = high == 0 ? low : 31 * high + low;
+			return value < 0 ? -hash : hash;
+		}
+
+		@Nonnull
+		@Override
+		public String toString() {
+			return Long.toString(value);
+		}
+	}
+
+	protected static final class DoubleValue extends JSONNumber {
+		private static final long serialVersionUID = 2781340442384924880L;
+
+		protected final double value;
+
+		protected DoubleValue(double value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean isInteger() {
+			return false;
+		}
+
+		@Override
+		public long longValueExact() {
+			throw new ClassCastException();
+		}
+
+		@Override
+		public long longValue() {
+			return (long)value;
+		}
+
+		@Override
+		public double doubleValue() {
+			return value;
+		}
+
+		@Nonnull
+		@Override
+		public BigInteger bigIntegerValue() {
+			throw new ClassCastException();
+		}
+
+		@Nonnull
+		@Override
+		public BigDecimal bigDecimalValue() {
+			return BigDecimal.valueOf(value);
+		}
+
+		@Override
+		public boolean equals(@Nullable Object o) {
+			if (o instanceof DoubleValue)
+				return Double.compare(value, ((DoubleValue)o).value) == 0;
+			return super.equals(o);
+		}
+
+		@Nonnull
+		@Override
+		public String toString() {
+			return JSONNumberFormat.toString(value);
+		}
+	}
+}
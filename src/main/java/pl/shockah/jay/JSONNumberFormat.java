@@ -0,0 +1,244 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.math.BigInteger;
+
+public final class JSONNumberFormat {
+	public static final int MAX_LENGTH = 32;
+
+	protected static final int P = 53;
+	protected static final int Q_MIN = -1074;
+	protected static final int K_MIN = -324;
+	protected static final int K_MAX = 292;
+	protected static final long C_MIN = 1L << (P - 1);
+	protected static final int C_TINY = 3;
+	protected static final long T_MASK = C_MIN - 1;
+	protected static final long MASK_63 = Long.MAX_VALUE;
+
+	protected static final int PLAIN_MIN_EXPONENT = -7;
+	protected static final int PLAIN_MAX_EXPONENT = 21;
+
+	protected static final char[] DIGIT_PAIRS = new char[200];
+	protected static final long[] POWERS_OF_10 = new long[18];
+	private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+	static {
+		for (int i = 0; i < 100; i++) {
+			DIGIT_PAIRS[i * 2] = (char)('0' + i / 10);
+			DIGIT_PAIRS[i * 2 + 1] = (char)('0' + i % 10);
+		}
+		POWERS_OF_10[0] = 1;
+		for (int i = 1; i < POWERS_OF_10.length; i++)
+			POWERS_OF_10[i] = POWERS_OF_10[i - 1] * 10;
+		for (int e = -K_MAX; e <= -K_MIN; e++) {
+			int r = flog2pow10(e) - 125;
+			BigInteger g;
+			if (e >= 0) {
+				BigInteger pow = BigInteger.TEN.pow(e);
+				g = r >= 0 ? pow.shiftRight(r) : pow.shiftLeft(-r);
+			} else {
+				g = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(-e));
+			}
+			g = g.add(BigInteger.ONE);
+			int index = 2 * (e + K_MAX);
+			G[index] = g.shiftRight(63).longValue();
+			G[index + 1] = g.longValue() & MASK_63;
+		}
+	}
+
+	private JSONNumberFormat() {
+		throw new UnsupportedOperationException();
+	}
+
+	public static int format(long value, @Nonnull char[] buffer, int offset) {
+		if (value == Long.MIN_VALUE) {
+			String s = "-9223372036854775808";
+			s.getChars(0, s.length(), buffer, offset);
+			return offset + s.length();
+		}
+		if (value < 0) {
+			buffer[offset++] = '-';
+			value = -value;
+		}
+		int length = digitCount(value);
+		writeDigits(value, buffer, offset, length);
+		return offset + length;
+	}
+
+	public static int format(double value, @Nonnull char[] buffer, int offset) {
+		long bits = Double.doubleToRawLongBits(value);
+		long t = bits & T_MASK;
+		int bq = (int)(bits >>> (P - 1)) & 0x7FF;
+		if (bq == 0x7FF)
+			throw new NumberFormatException(String.format("Invalid number '%s'", value));
+		if (bits < 0)
+			buffer[offset++] = '-';
+		if (bq != 0) {
+			int mq = -Q_MIN + 1 - bq;
+			long c = C_MIN | t;
+			if (mq > 0 && mq < P) {
+				long f = c >> mq;
+				if (f << mq == c)
+					return writeDecimal(f, 0, buffer, offset);
+			}
+			return toDecimal(-mq, c, 0, buffer, offset);
+		}
+		if (t != 0)
+			return t < C_TINY ? toDecimal(Q_MIN, 10 * t, -1, buffer, offset) : toDecimal(Q_MIN, t, 0, buffer, offset);
+		buffer[offset++] = '0';
+		buffer[offset++] = '.';
+		buffer[offset++] = '0';
+		return offset;
+	}
+
+	@Nonnull
+	public static String toString(double value) {
+		char[] buffer = new char[MAX_LENGTH];
+		return new String(buffer, 0, format(value, buffer, 0));
+	}
+
+	protected static int toDecimal(int q, long c, int dk, @Nonnull char[] buffer, int offset) {
+		int out = (int)c & 1;
+		long cb = c << 2;
+		long cbr = cb + 2;
+		long cbl;
+		int k;
+		if (c != C_MIN || q == Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		int h = q + flog2pow10(-k) + 2;
+
+		int index = 2 * (-k + K_MAX);
+		long g1 = G[index];
+		long g0 = G[index + 1];
+
+		long vb = rop(g1, g0, cb << h);
+		long vbl = rop(g1, g0, cbl << h);
+		long vbr = rop(g1, g0, cbr << h);
+
+		long s = vb >> 2;
+		if (s >= 100) {
+			long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+			long tp10 = sp10 + 10;
+			boolean upin = vbl + out <= sp10 << 2;
+			boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin)
+				return writeDecimal(upin ? sp10 : tp10, k, buffer, offset);
+		}
+
+		long t = s + 1;
+		boolean uin = vbl + out <= s << 2;
+		boolean win = (t << 2) + out <= vbr;
+		if (uin != win)
+			return writeDecimal(uin ? s : t, k + dk, buffer, offset);
+		long cmp = vb - (s + t << 1);
+		return writeDecimal(cmp < 0 || (cmp == 0 && (s & 1) == 0) ? s : t, k + dk, buffer, offset);
+	}
+
+	protected static long rop(long g1, long g0, long cp) {
+		long x1 = multiplyHigh(g0, cp);
+		long y0 = g1 * cp;
+		long y1 = multiplyHigh(g1, cp);
+		long z = (y0 >>> 1) + x1;
+		long vbp = y1 + (z >>> 63);
+		return vbp | ((z & MASK_63) + MASK_63) >>> 63;
+	}
+
+	protected static long multiplyHigh(long x, long y) {
+		long x1 = x >> 32;
+		long x2 = x & 0xFFFFFFFFL;
+		long y1 = y >> 32;
+		long y2 = y & 0xFFFFFFFFL;
+		long z2 = x2 * y2;
+		long t = x1 * y2 + (z2 >>> 32);
+		long z1 = t & 0xFFFFFFFFL;
+		long z0 = t >> 32;
+		z1 += x2 * y1;
+		return x1 * y1 + z0 + (z1 >> 32);
+	}
+
+	protected static int flog10pow2(int e) {
+		return (int)(e * 661971961083L >> 41);
+	}
+
+	protected static int flog10threeQuartersPow2(int e) {
+		return (int)(e * 661971961083L + -274743187321L >> 41);
+	}
+
+	protected static int flog2pow10(int e) {
+		return (int)(e * 913124641741L >> 38);
+	}
+
+	protected static int digitCount(long value) {
+		int length = 1;
+		while (length < POWERS_OF_10.length && value >= POWERS_OF_10[length])
+			length++;
+		if (length == POWERS_OF_10.length && value >= 1000000000000000000L)
+			length++;
+		return length;
+	}
+
+	protected static void writeDigits(long value, @Nonnull char[] buffer, int offset, int length) {
+		int position = offset + length;
+		while (value >= 100) {
+			int pair = (int)(value % 100) * 2;
+			value /= 100;
+			buffer[--position] = DIGIT_PAIRS[pair + 1];
+			buffer[--position] = DIGIT_PAIRS[pair];
+		}
+		if (value >= 10) {
+			buffer[--position] = DIGIT_PAIRS[(int)value * 2 + 1];
+			buffer[--position] = DIGIT_PAIRS[(int)value * 2];
+		} else {
+			buffer[--position] = (char)('0' + value);
+		}
+	}
+
+	protected static int writeDecimal(long f, int e, @Nonnull char[] buffer, int offset) {
+		while (f % 10 == 0) {
+			f /= 10;
+			e++;
+		}
+		int length = digitCount(f);
+		int exponent = e + length - 1;
+
+		if (exponent < PLAIN_MIN_EXPONENT || exponent >= PLAIN_MAX_EXPONENT) {
+			writeDigits(f, buffer, offset + 1, length);
+			buffer[offset] = buffer[offset + 1];
+			buffer[offset + 1] = '.';
+			offset += length + 1;
+			if (length == 1)
+				buffer[offset++] = '0';
+			buffer[offset++] = 'E';
+			return format(exponent, buffer, offset);
+		}
+
+		if (exponent < 0) {
+			buffer[offset++] = '0';
+			buffer[offset++] = '.';
+			for (int i = -1; i > exponent; i--)
+				buffer[offset++] = '0';
+			writeDigits(f, buffer, offset, length);
+			return offset + length;
+		}
+
+		if (exponent + 1 >= length) {
+			writeDigits(f, buffer, offset, length);
+			offset += length;
+			for (int i = length; i <= exponent; i++)
+				buffer[offset++] = '0';
+			buffer[offset++] = '.';
+			buffer[offset++] = '0';
+			return offset;
+		}
+
+		writeDigits(f, buffer, offset, length);
+		System.arraycopy(buffer, offset + exponent + 1, buffer, offset + exponent + 2, length - exponent - 1);
+		buffer[offset + exponent + 1] = '.';
+		return offset + length + 1;
+	}
+}
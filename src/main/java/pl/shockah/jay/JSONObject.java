@@ -5,13 +5,23 @@ import pl.shockah.util.func.Action1;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class JSONObject extends LinkedHashMap<String, Object> {
 	private static final long serialVersionUID = -8548703026353148866L;
 
+	protected static final int COMPACT_LIMIT = 16;
+
+	private static final String[] NO_KEYS = new String[0];
+	private static final Object[] NO_VALUES = new Object[0];
+
 	@Nonnull
 	public static JSONObject of(Object... values) {
 		if (values.length % 2 != 0)
@@ -25,39 +35,58 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 		return j;
 	}
 	
-	@SuppressWarnings("unchecked")
 	@Nullable
 	protected static Object prepareObject(@Nullable Object o) {
+		return prepareObject(o, JSONParser.NumberMode.Exact);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nullable
+	protected static Object prepareObject(@Nullable Object o, @Nonnull JSONParser.NumberMode numberMode) {
 		if (o == null)
 			return null;
-		else if (o instanceof Boolean || o instanceof BigInteger || o instanceof BigDecimal
+		else if (o instanceof Boolean || o instanceof BigInteger || o instanceof BigDecimal || o instanceof JSONNumber
 			|| o instanceof String || o instanceof JSONObject || o instanceof JSONList<?>)
 			return o;
-		else if (o instanceof Integer)
-			return BigInteger.valueOf((Integer)o);
-		else if (o instanceof Long)
-			return BigInteger.valueOf((Long)o);
-		else if (o instanceof Float)
-			return BigDecimal.valueOf((Float)o);
-		else if (o instanceof Double)
-			return BigDecimal.valueOf((Double)o);
-		else if (o instanceof Map<?, ?>)
-			return new JSONObject((Map<String, Object>)o);
-		else if (o instanceof List<?>)
-			return new JSONList<>((List<Object>) o);
-		else
+		else if (o instanceof Integer || o instanceof Long)
+			return numberMode == JSONParser.NumberMode.Primitive ? JSONNumber.of(((Number)o).longValue()) : BigInteger.valueOf(((Number)o).longValue());
+		else if (o instanceof Float || o instanceof Double)
+			return numberMode == JSONParser.NumberMode.Primitive ? JSONNumber.of(((Number)o).doubleValue()) : BigDecimal.valueOf(((Number)o).doubleValue());
+		else if (o instanceof Map<?, ?>) {
+			JSONObject j = new JSONObject().setNumberMode(numberMode);
+			j.putAll((Map<String, Object>)o);
+			return j;
+		} else if (o instanceof List<?>) {
+			JSONList<Object> j = new JSONList<>().setNumberMode(numberMode);
+			j.addAll((List<Object>)o);
+			return j;
+		} else
 			throw new ClassCastException();
 	}
 
 	@Nonnull
 	protected static Map<String, Object> prepareObjects(@Nonnull Map<? extends String, ?> map) {
+		return prepareObjects(map, JSONParser.NumberMode.Exact);
+	}
+
+	@Nonnull
+	protected static Map<String, Object> prepareObjects(@Nonnull Map<? extends String, ?> map, @Nonnull JSONParser.NumberMode numberMode) {
 		Map<String, Object> ret = new TreeMap<>();
 		for (Map.Entry<? extends String, ?> entry : map.entrySet())
-			ret.put(entry.getKey(), prepareObject(entry.getValue()));
+			ret.put(entry.getKey(), prepareObject(entry.getValue(), numberMode));
 		return ret;
 	}
 	
+	@Nonnull protected String[] keys = NO_KEYS;
+	@Nonnull protected Object[] values = NO_VALUES;
+	protected int size = 0;
+	@Nullable protected JSONShape shape;
+	protected boolean hashed = false;
+	protected transient int modCount = 0;
+	@Nullable protected transient Set<Map.Entry<String, Object>> entrySet;
 	@Nullable protected Map<String, String> comments;
+	@Nullable protected transient volatile JSONNodeState state;
+	@Nonnull protected JSONParser.NumberMode numberMode = JSONParser.NumberMode.Exact;
 	
 	public JSONObject() {
 		super();
@@ -71,7 +100,372 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	@Override
 	@Nonnull
 	public String toString() {
-		return new JSONPrettyPrinter().toString(this);
+		return JSONPrettyPrinter.SHARED.toString(this);
+	}
+
+	@Nonnull
+	public JSONParser.NumberMode getNumberMode() {
+		return numberMode;
+	}
+
+	@Nonnull
+	public JSONObject setNumberMode(@Nonnull JSONParser.NumberMode numberMode) {
+		this.numberMode = numberMode;
+		return this;
+	}
+
+	@Nullable
+	protected Object prepareValue(@Nullable Object o) {
+		return prepareObject(o, numberMode);
+	}
+
+	protected int indexOf(@Nullable Object key) {
+		if (shape != null)
+			return shape.indexOf(key);
+		String[] keys = this.keys;
+		for (int i = 0; i < size; i++) {
+			String k = keys[i];
+			if (k == key || (key != null && key.equals(k)))
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public int size() {
+		return hashed ? super.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		return hashed ? super.containsKey(key) : indexOf(key) != -1;
+	}
+
+	@Override
+	public boolean containsValue(@Nullable Object value) {
+		if (hashed)
+			return super.containsValue(value);
+		for (int i = 0; i < size; i++) {
+			if (Objects.equals(value, values[i]))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	@Nullable
+	public Object get(@Nullable Object key) {
+		if (hashed)
+			return super.get(key);
+		int index = indexOf(key);
+		return index == -1 ? null : values[index];
+	}
+
+	@Override
+	@Nullable
+	public Object getOrDefault(@Nullable Object key, @Nullable Object defaultValue) {
+		if (hashed)
+			return super.getOrDefault(key, defaultValue);
+		int index = indexOf(key);
+		return index == -1 ? defaultValue : values[index];
+	}
+
+	protected void setShape(@Nonnull JSONShape shape) {
+		if (hashed || size != shape.size())
+			return;
+		for (int i = 0; i < size; i++) {
+			if (keys[i] != shape.keys[i])
+				return;
+		}
+		this.shape = shape;
+		keys = shape.keys;
+		if (values.length != size)
+			values = Arrays.copyOf(values, size);
+	}
+
+	protected void unshare() {
+		if (shape != null) {
+			keys = keys.clone();
+			shape = null;
+		}
+	}
+
+	protected void changed() {
+		if (state != null)
+			JSONNodeState.invalidate(state);
+	}
+
+	protected void replaced(@Nullable Object old, @Nullable Object value) {
+		if (old != value) {
+			JSONNodeState.detach(old, this);
+			JSONNodeState.attach(value, this);
+		}
+		changed();
+	}
+
+	@Nullable
+	protected Object putPrepared(@Nonnull String key, @Nullable Object value) {
+		if (hashed) {
+			Object old = super.put(key, value);
+			replaced(old, value);
+			return old;
+		}
+		int index = indexOf(key);
+		if (index != -1) {
+			Object old = values[index];
+			values[index] = value;
+			replaced(old, value);
+			return old;
+		}
+		if (size == COMPACT_LIMIT) {
+			upgrade();
+			super.put(key, value);
+			replaced(null, value);
+			return null;
+		}
+		unshare();
+		if (size == keys.length) {
+			int capacity = Math.min(Math.max(size * 2, 4), COMPACT_LIMIT);
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		keys[size] = key;
+		values[size] = value;
+		size++;
+		modCount++;
+		replaced(null, value);
+		if (getClass() != JSONObject.class && removeEldestEntry(new ArrayEntry(keys[0], values[0])))
+			remove(keys[0]);
+		return null;
+	}
+
+	protected void upgrade() {
+		String[] keys = this.keys;
+		Object[] values = this.values;
+		int size = this.size;
+		hashed = true;
+		shape = null;
+		this.keys = NO_KEYS;
+		this.values = NO_VALUES;
+		this.size = 0;
+		modCount++;
+		for (int i = 0; i < size; i++)
+			super.put(keys[i], values[i]);
+	}
+
+	@Override
+	@Nullable
+	public Object remove(@Nullable Object key) {
+		if (hashed) {
+			if (!super.containsKey(key))
+				return null;
+			Object old = super.remove(key);
+			replaced(old, null);
+			return old;
+		}
+		int index = indexOf(key);
+		if (index == -1)
+			return null;
+		Object old = values[index];
+		removeAt(index);
+		return old;
+	}
+
+	protected void removeAt(int index) {
+		JSONNodeState.detach(values[index], this);
+		unshare();
+		int moved = size - index - 1;
+		System.arraycopy(keys, index + 1, keys, index, moved);
+		System.arraycopy(values, index + 1, values, index, moved);
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		modCount++;
+		changed();
+	}
+
+	@Override
+	public void clear() {
+		if (hashed) {
+			for (Object value : super.values())
+				JSONNodeState.detach(value, this);
+			super.clear();
+		} else {
+			for (int i = 0; i < size; i++)
+				JSONNodeState.detach(values[i], this);
+		}
+		hashed = false;
+		shape = null;
+		keys = NO_KEYS;
+		values = NO_VALUES;
+		size = 0;
+		modCount++;
+		changed();
+	}
+
+	@Override
+	@Nonnull
+	public Set<Map.Entry<String, Object>> entrySet() {
+		if (entrySet == null)
+			entrySet = new EntrySet();
+		return entrySet;
+	}
+
+	@Nonnull
+	protected Set<Map.Entry<String, Object>> hashedEntrySet() {
+		return super.entrySet();
+	}
+
+	@Override
+	@Nonnull
+	public Set<String> keySet() {
+		return new KeySet();
+	}
+
+	@Override
+	@Nonnull
+	public Collection<Object> values() {
+		return new Values();
+	}
+
+	@Override
+	@Nullable
+	public Object putIfAbsent(@Nonnull String key, @Nullable Object value) {
+		Object old = get(key);
+		return old == null ? put(key, value) : old;
+	}
+
+	@Override
+	public boolean remove(@Nullable Object key, @Nullable Object value) {
+		if (!containsKey(key) || !Objects.equals(get(key), value))
+			return false;
+		remove(key);
+		return true;
+	}
+
+	@Override
+	public boolean replace(@Nonnull String key, @Nullable Object oldValue, @Nullable Object newValue) {
+		if (!containsKey(key) || !Objects.equals(get(key), oldValue))
+			return false;
+		put(key, newValue);
+		return true;
+	}
+
+	@Override
+	@Nullable
+	public Object replace(@Nonnull String key, @Nullable Object value) {
+		return containsKey(key) ? put(key, value) : null;
+	}
+
+	@Override
+	@Nullable
+	public Object computeIfAbsent(@Nonnull String key, @Nonnull Function<? super String, ?> f) {
+		Object old = get(key);
+		if (old != null)
+			return old;
+		Object value = f.apply(key);
+		if (value == null)
+			return null;
+		put(key, value);
+		return get(key);
+	}
+
+	@Override
+	@Nullable
+	public Object computeIfPresent(@Nonnull String key, @Nonnull BiFunction<? super String, ? super Object, ?> f) {
+		Object old = get(key);
+		if (old == null)
+			return null;
+		Object value = f.apply(key, old);
+		if (value == null) {
+			remove(key);
+			return null;
+		}
+		put(key, value);
+		return get(key);
+	}
+
+	@Override
+	@Nullable
+	public Object compute(@Nonnull String key, @Nonnull BiFunction<? super String, ? super Object, ?> f) {
+		Object value = f.apply(key, get(key));
+		if (value == null) {
+			remove(key);
+			return null;
+		}
+		put(key, value);
+		return get(key);
+	}
+
+	@Override
+	@Nullable
+	public Object merge(@Nonnull String key, @Nonnull Object value, @Nonnull BiFunction<? super Object, ? super Object, ?> f) {
+		Object old = get(key);
+		Object merged = old == null ? value : f.apply(old, value);
+		if (merged == null) {
+			remove(key);
+			return null;
+		}
+		put(key, merged);
+		return get(key);
+	}
+
+	@Override
+	public void forEach(@Nonnull BiConsumer<? super String, ? super Object> f) {
+		for (Map.Entry<String, Object> entry : entrySet())
+			f.accept(entry.getKey(), entry.getValue());
+	}
+
+	@Override
+	public void replaceAll(@Nonnull BiFunction<? super String, ? super Object, ?> f) {
+		for (Map.Entry<String, Object> entry : entrySet())
+			entry.setValue(f.apply(entry.getKey(), entry.getValue()));
+	}
+
+	@Override
+	@Nonnull
+	public JSONObject clone() {
+		JSONObject j = (JSONObject)super.clone();
+		if (!hashed)
+			j.clearHashed();
+		if (shape == null)
+			j.keys = size == 0 ? NO_KEYS : keys.clone();
+		j.values = size == 0 ? NO_VALUES : values.clone();
+		if (comments != null)
+			j.comments = new HashMap<>(comments);
+		j.entrySet = null;
+		j.state = null;
+		return j;
+	}
+
+	private void readObject(@Nonnull ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (keys == null) {
+			keys = NO_KEYS;
+			values = NO_VALUES;
+			hashed = super.size() != 0;
+		}
+		if (numberMode == null)
+			numberMode = JSONParser.NumberMode.Exact;
+	}
+
+	protected void clearHashed() {
+		super.clear();
+	}
+
+	protected void attachChildren() {
+		if (hashed) {
+			for (Object value : super.values())
+				JSONNodeState.attach(value, this);
+		} else {
+			for (int i = 0; i < size; i++)
+				JSONNodeState.attach(values[i], this);
+		}
 	}
 	
 	public boolean isNull(@Nonnull String key) {
@@ -121,7 +515,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 		if (!containsKey(key))
 			throw new NullPointerException();
 		Object o = get(key);
-		return o instanceof BigInteger;
+		return o instanceof BigInteger || (o instanceof JSONNumber && ((JSONNumber)o).isInteger());
 	}
 
 	@Nonnull
@@ -131,6 +525,8 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 		Object o = get(key);
 		if (o instanceof BigInteger)
 			return (BigInteger)o;
+		else if (o instanceof JSONNumber)
+			return ((JSONNumber)o).bigIntegerValue();
 		throw new ClassCastException();
 	}
 
@@ -157,7 +553,14 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	}
 	
 	public int getInt(@Nonnull String key) {
-		return getBigInt(key).intValueExact();
+		if (!containsKey(key))
+			throw new NullPointerException();
+		Object o = get(key);
+		if (o instanceof JSONNumber)
+			return ((JSONNumber)o).intValueExact();
+		else if (o instanceof BigInteger)
+			return ((BigInteger)o).intValueExact();
+		throw new ClassCastException();
 	}
 	
 	public int getInt(@Nonnull String key, int def) {
@@ -182,7 +585,14 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	}
 	
 	public long getLong(@Nonnull String key) {
-		return getBigInt(key).longValueExact();
+		if (!containsKey(key))
+			throw new NullPointerException();
+		Object o = get(key);
+		if (o instanceof JSONNumber)
+			return ((JSONNumber)o).longValueExact();
+		else if (o instanceof BigInteger)
+			return ((BigInteger)o).longValueExact();
+		throw new ClassCastException();
 	}
 	
 	public long getLong(@Nonnull String key, long def) {
@@ -210,7 +620,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 		if (!containsKey(key))
 			throw new NullPointerException();
 		Object o = get(key);
-		return o instanceof BigDecimal;
+		return o instanceof BigDecimal || (o instanceof JSONNumber && !((JSONNumber)o).isInteger());
 	}
 
 	@Nonnull
@@ -222,6 +632,8 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 			return (BigDecimal)o;
 		else if (o instanceof BigInteger)
 			return new BigDecimal((BigInteger)o);
+		else if (o instanceof JSONNumber)
+			return ((JSONNumber)o).bigDecimalValue();
 		throw new ClassCastException();
 	}
 
@@ -248,6 +660,11 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	}
 	
 	public float getFloat(@Nonnull String key) {
+		if (!containsKey(key))
+			throw new NullPointerException();
+		Object o = get(key);
+		if (o instanceof JSONNumber)
+			return ((JSONNumber)o).floatValue();
 		return getBigDecimal(key).floatValue();
 	}
 	
@@ -273,6 +690,11 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	}
 	
 	public double getDouble(@Nonnull String key) {
+		if (!containsKey(key))
+			throw new NullPointerException();
+		Object o = get(key);
+		if (o instanceof JSONNumber)
+			return ((JSONNumber)o).doubleValue();
 		return getBigDecimal(key).doubleValue();
 	}
 	
@@ -360,7 +782,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 
 	@Nonnull
 	public JSONObject getObjectOrEmpty(@Nonnull String key) {
-		return containsKey(key) ? getObject(key) : new JSONObject();
+		return containsKey(key) ? getObject(key) : new JSONObject().setNumberMode(numberMode);
 	}
 
 	@Nonnull
@@ -368,7 +790,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 		if (containsKey(key)) {
 			return getObject(key);
 		} else {
-			JSONObject j = new JSONObject();
+			JSONObject j = new JSONObject().setNumberMode(numberMode);
 			put(key, j);
 			return j;
 		}
@@ -415,7 +837,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 
 	@Nonnull
 	public JSONList<?> getListOrEmpty(@Nonnull String key) {
-		return containsKey(key) ? getList(key) : new JSONList<>();
+		return containsKey(key) ? getList(key) : new JSONList<>().setNumberMode(numberMode);
 	}
 
 	@Nonnull
@@ -423,7 +845,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 		if (containsKey(key)) {
 			return getList(key);
 		} else {
-			JSONList<?> j = new JSONList<>();
+			JSONList<?> j = new JSONList<>().setNumberMode(numberMode);
 			put(key, j);
 			return j;
 		}
@@ -457,14 +879,14 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 
 	@Nonnull
 	public JSONObject putNewObject(@Nonnull String key) {
-		JSONObject j = new JSONObject();
+		JSONObject j = new JSONObject().setNumberMode(numberMode);
 		put(key, j);
 		return j;
 	}
 
 	@Nonnull
 	public JSONList<?> putNewList(@Nonnull String key) {
-		JSONList<Object> j = new JSONList<>();
+		JSONList<Object> j = new JSONList<>().setNumberMode(numberMode);
 		put(key, j);
 		return j;
 	}
@@ -492,15 +914,199 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	
 	@Override
 	public Object put(@Nonnull String key, @Nullable Object value) {
-		return super.put(key, prepareObject(value));
+		return putPrepared(key, prepareValue(value));
 	}
 	
 	@Override
 	public void putAll(@Nonnull Map<? extends String, ?> map) {
-		super.putAll(prepareObjects(map));
+		for (Map.Entry<String, Object> entry : prepareObjects(map, numberMode).entrySet())
+			putPrepared(entry.getKey(), entry.getValue());
 	}
 
 	public boolean isNumber(@Nonnull String key) {
 		return isInteger(key) || isDecimal(key);
 	}
-}
\ No newline at end of file
+
+	protected class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+		@Override
+		public int size() {
+			return JSONObject.this.size();
+		}
+
+		@Override
+		@Nonnull
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			return hashed ? new MapEntryIterator() : new EntryIterator();
+		}
+
+		@Override
+		public void clear() {
+			JSONObject.this.clear();
+		}
+	}
+
+	protected class KeySet extends AbstractSet<String> {
+		@Override
+		public int size() {
+			return JSONObject.this.size();
+		}
+
+		@Override
+		public boolean contains(@Nullable Object o) {
+			return containsKey(o);
+		}
+
+		@Override
+		public boolean remove(@Nullable Object o) {
+			if (!containsKey(o))
+				return false;
+			JSONObject.this.remove(o);
+			return true;
+		}
+
+		@Override
+		@Nonnull
+		public Iterator<String> iterator() {
+			final Iterator<Map.Entry<String, Object>> iterator = entrySet().iterator();
+			return new Iterator<String>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				@Nonnull
+				public String next() {
+					return iterator.next().getKey();
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+				}
+			};
+		}
+
+		@Override
+		public void clear() {
+			JSONObject.this.clear();
+		}
+	}
+
+	protected class Values extends AbstractCollection<Object> {
+		@Override
+		public int size() {
+			return JSONObject.this.size();
+		}
+
+		@Override
+		public boolean contains(@Nullable Object o) {
+			return containsValue(o);
+		}
+
+		@Override
+		@Nonnull
+		public Iterator<Object> iterator() {
+			final Iterator<Map.Entry<String, Object>> iterator = entrySet().iterator();
+			return new Iterator<Object>() {
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				@Nullable
+				public Object next() {
+					return iterator.next().getValue();
+				}
+
+				@Override
+				public void remove() {
+					iterator.remove();
+				}
+			};
+		}
+
+		@Override
+		public void clear() {
+			JSONObject.this.clear();
+		}
+	}
+
+	protected class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		protected int index = 0;
+		protected int last = -1;
+		protected int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return index < size;
+		}
+
+		@Override
+		@Nonnull
+		public Map.Entry<String, Object> next() {
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			if (index >= size)
+				throw new NoSuchElementException();
+			last = index++;
+			return new ArrayEntry(keys[last], values[last]);
+		}
+
+		@Override
+		public void remove() {
+			if (last == -1)
+				throw new IllegalStateException();
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+			removeAt(last);
+			index = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	protected class MapEntryIterator implements Iterator<Map.Entry<String, Object>> {
+		@Nonnull protected final Iterator<Map.Entry<String, Object>> iterator = hashedEntrySet().iterator();
+		@Nullable protected Map.Entry<String, Object> last;
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		@Nonnull
+		public Map.Entry<String, Object> next() {
+			last = iterator.next();
+			return new ArrayEntry(last.getKey(), last.getValue());
+		}
+
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException();
+			iterator.remove();
+			JSONNodeState.detach(last.getValue(), JSONObject.this);
+			last = null;
+			changed();
+		}
+	}
+
+	protected class ArrayEntry extends SimpleEntry<String, Object> {
+		private static final long serialVersionUID = 3524672813398553466L;
+
+		protected ArrayEntry(@Nonnull String key, @Nullable Object value) {
+			super(key, value);
+		}
+
+		@Override
+		@Nullable
+		public Object setValue(@Nullable Object value) {
+			value = prepareValue(value);
+			super.setValue(value);
+			return putPrepared(getKey(), value);
+		}
+	}
+}
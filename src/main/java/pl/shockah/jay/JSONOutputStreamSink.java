@@ -0,0 +1,43 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+public class JSONOutputStreamSink extends JSONByteSink {
+	public static final int MIN_BUFFER_SIZE = JSONNumberFormat.MAX_LENGTH + 12;
+
+	@Nonnull public final OutputStream out;
+
+	public JSONOutputStreamSink(@Nonnull OutputStream out) {
+		this(out, DEFAULT_CAPACITY);
+	}
+
+	public JSONOutputStreamSink(@Nonnull OutputStream out, int bufferSize) {
+		super(Math.max(bufferSize, MIN_BUFFER_SIZE));
+		this.out = out;
+	}
+
+	@Override
+	protected void drain(int required) {
+		try {
+			out.write(buffer, 0, position);
+			position = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain(0);
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		super.close();
+		out.close();
+	}
+}
@@ -1,180 +1,371 @@
 package pl.shockah.jay;
 
+import pl.shockah.util.func.Action1;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigInteger;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 public class JSONParser {
+	public enum NumberMode {
+		Exact,
+		Lazy,
+		Primitive;
+	}
+
+	@Nonnull protected NumberMode numberMode = NumberMode.Exact;
+	@Nullable protected JSONProjection projection;
+
 	@Nonnull
-	protected String tokenToString(@Nullable Object token) {
-		if (token == null)
-			return "null";
-		else if (token instanceof Boolean)
-			return ((Boolean)token) ? "true" : "false";
-		else if (token instanceof BigInteger)
-			return token.toString();
-		else if (token instanceof BigDecimal)
-			return token.toString();
-		else if (token instanceof String)
-			return String.format("'%s'", token);
-		else if (token instanceof JSONSpecialToken)
-			return ((JSONSpecialToken)token).name();
-		else
-			throw new UnsupportedOperationException(String.format("Unknown token type: %s", token.getClass().getName()));
+	public NumberMode getNumberMode() {
+		return numberMode;
+	}
+
+	@Nonnull
+	public JSONParser setNumberMode(@Nonnull NumberMode numberMode) {
+		this.numberMode = numberMode;
+		return this;
+	}
+
+	@Nullable
+	public JSONProjection getProjection() {
+		return projection;
+	}
+
+	@Nonnull
+	public JSONParser setProjection(@Nullable JSONProjection projection) {
+		this.projection = projection;
+		return this;
 	}
 
 	@Nonnull
 	public JSONObject parseObject(@Nonnull String json) {
-		List<Object> tokens = new JSONTokenizer().tokenize(json);
-		TokenBuffer buf = new TokenBuffer(tokens);
-		JSONObject j = parseObject(buf);
-		if (buf.position < buf.length())
-			throw new JSONParseException(String.format("Additional token %s after the ObjectEnd token", tokenToString(buf.get())));
-		return j;
+		JSONSource source = new JSONStringSource(json);
+		try {
+			return parseObject(source);
+		} finally {
+			source.releaseBuffers();
+		}
 	}
 
 	@Nonnull
 	public JSONList<Object> parseList(@Nonnull String json) {
-		List<Object> tokens = new JSONTokenizer().tokenize(json);
-		TokenBuffer buf = new TokenBuffer(tokens);
-		JSONList<Object> j = parseList(buf);
-		if (buf.position < buf.length())
-			throw new JSONParseException(String.format("Additional token %s after the ListEnd token", tokenToString(buf.get())));
-		return j;
+		JSONSource source = new JSONStringSource(json);
+		try {
+			return parseList(source);
+		} finally {
+			source.releaseBuffers();
+		}
 	}
 
 	@Nonnull
-	protected JSONObject parseObject(@Nonnull TokenBuffer buf) {
-		JSONObject j = null;
-		while (buf.hasLeft()) {
-			Object token = buf.get();
-			if (j == null) {
-				if (token == JSONSpecialToken.ObjectBegin) {
-					j = new JSONObject();
-				} else {
-					throw new JSONParseException(String.format("Invalid token %s; expected ObjectBegin", tokenToString(token)));
-				}
-			} else {
-				if (token == JSONSpecialToken.ObjectEnd) {
-					return j;
-				} else {
-					if (!j.isEmpty()) {
-						if (token != JSONSpecialToken.Comma)
-							throw new JSONParseException(String.format("Invalid token %s; expected Comma", tokenToString(token)));
-						if (buf.hasLeft()) {
-							token = buf.get();
-						} else {
-							throw new JSONParseException("Missing token; expected key token");
-						}
-					}
-					if (token instanceof String) {
-						String key = (String)token;
-						if (buf.hasLeft()) {
-							Object token2 = buf.get();
-							if (token2 == JSONSpecialToken.Colon) {
-								j.put(key, parseValue(buf));
-							} else {
-								throw new JSONParseException(String.format("Invalid token %s; expected Colon", tokenToString(token2)));
-							}
-						} else {
-							throw new JSONParseException("Missing token; expected Colon");
-						}
-					}
-				}
-			}
+	public JSONObject parseObject(@Nonnull Reader reader) {
+		JSONSource source = new JSONReaderSource(reader);
+		try {
+			return parseObject(source);
+		} finally {
+			source.releaseBuffers();
 		}
-		throw new JSONParseException("Missing token; expected ObjectEnd");
 	}
 
 	@Nonnull
-	protected JSONList<Object> parseList(@Nonnull TokenBuffer buf) {
-		JSONList<Object> j = null;
-		while (buf.hasLeft()) {
-			Object token = buf.get();
-			if (j == null) {
-				if (token == JSONSpecialToken.ListBegin) {
-					j = new JSONList<>();
-				} else {
-					throw new JSONParseException(String.format("Invalid token %s; expected ListBegin", tokenToString(token)));
-				}
+	public JSONList<Object> parseList(@Nonnull Reader reader) {
+		JSONSource source = new JSONReaderSource(reader);
+		try {
+			return parseList(source);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	@Nullable
+	public Object parse(@Nonnull String json) {
+		JSONSource source = new JSONStringSource(json);
+		try {
+			return parse(source);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	@Nullable
+	public Object parse(@Nonnull byte[] json, int offset, int length) {
+		JSONSource source = new JSONByteSource(json, offset, offset + length);
+		try {
+			return parse(source);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	@Nullable
+	public Object parse(@Nonnull ByteBuffer json) {
+		JSONSource source;
+		if (json.hasArray())
+			source = new JSONByteSource(json.array(), json.arrayOffset() + json.position(), json.arrayOffset() + json.limit());
+		else
+			source = new JSONByteBufferSource(json);
+		try {
+			return parse(source);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	@Nullable
+	public Object parseFile(@Nonnull Path path) throws IOException {
+		try (JSONSource source = new JSONMappedFileSource(path)) {
+			return parse(source);
+		}
+	}
+
+	public void parseFile(@Nonnull Path path, @Nonnull Action1<Object> f) throws IOException {
+		try (JSONReader reader = new JSONReader(new JSONMappedFileSource(path), this)) {
+			if (reader.peek() == JSONToken.ListBegin) {
+				reader.beginList();
+				while (reader.hasNext())
+					f.call(reader.nextValue(projection));
+				reader.endList();
 			} else {
-				if (token == JSONSpecialToken.ListEnd) {
-					return j;
-				} else {
-					if (j.isEmpty()) {
-						buf.seek(-1);
-					} else {
-						if (token != JSONSpecialToken.Comma)
-							throw new JSONParseException(String.format("Invalid token %s; expected Comma", tokenToString(token)));
-					}
-					j.add(parseValue(buf));
-				}
+				f.call(reader.nextValue(projection));
 			}
+			if (reader.peek() != JSONToken.End)
+				throw new JSONParseException(String.format("Additional token at position %d after the root value", reader.source.getPosition()));
+		}
+	}
+
+	public void extract(@Nonnull String query, @Nonnull Reader reader, @Nonnull Action1<Object> f) {
+		JSONSource source = new JSONReaderSource(reader);
+		try {
+			JSONQuery.compile(query).extract(source, this, f);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	public void extractFile(@Nonnull String query, @Nonnull Path path, @Nonnull Action1<Object> f) throws IOException {
+		try (JSONSource source = new JSONMappedFileSource(path)) {
+			JSONQuery.compile(query).extract(source, this, f);
 		}
-		throw new JSONParseException("Missing token; expected ListEnd");
 	}
 
 	@Nullable
-	protected Object parseValue(@Nonnull TokenBuffer buf) {
-		if (!buf.hasLeft())
-			throw new JSONParseException("Missing token; expected value token");
-		Object token = buf.get();
-		if (token instanceof JSONSpecialToken) {
-			JSONSpecialToken jsontoken = (JSONSpecialToken)token;
-			if (jsontoken == JSONSpecialToken.ObjectBegin) {
-				buf.seek(-1);
-				return parseObject(buf);
-			} else if (jsontoken == JSONSpecialToken.ListBegin) {
-				buf.seek(-1);
-				return parseList(buf);
+	public Object parse(@Nonnull JSONSource source) {
+		Object value = readValue(source, projection);
+		expectEnd(source, "root value");
+		return value;
+	}
+
+	@Nonnull
+	public JSONObject parseObject(@Nonnull JSONSource source) {
+		int c = source.peekSignificant();
+		if (c != '{')
+			throw source.unexpected(c, "ObjectBegin");
+		JSONObject j = projection == null ? readObject(source) : readObject(source, projection);
+		expectEnd(source, "ObjectEnd");
+		return j;
+	}
+
+	@Nonnull
+	public JSONList<Object> parseList(@Nonnull JSONSource source) {
+		int c = source.peekSignificant();
+		if (c != '[')
+			throw source.unexpected(c, "ListBegin");
+		JSONList<Object> j = projection == null ? readList(source) : readList(source, projection);
+		expectEnd(source, "ListEnd");
+		return j;
+	}
+
+	protected void expectEnd(@Nonnull JSONSource source, @Nonnull String lastToken) {
+		int c = source.peekSignificant();
+		if (c != JSONSource.EOF)
+			throw new JSONParseException(String.format("Additional token '%c' at position %d after the %s token", (char)c, source.getPosition(), lastToken));
+	}
+
+	@Nonnull
+	protected JSONObject readObject(@Nonnull JSONSource source) {
+		source.read();
+		JSONObject j = new JSONObject().setNumberMode(numberMode);
+		int c = source.peekSignificant();
+		if (c == '}') {
+			source.read();
+			return j;
+		}
+		JSONShape shape = source.getRootShape();
+		while (true) {
+			if (c != '"' && c != '\'')
+				throw source.unexpected(c, "key token");
+			String key = source.readString();
+			if (shape != null) {
+				shape = shape.next(key);
+				if (shape != null)
+					key = shape.getKey(shape.size() - 1);
+			}
+			source.expect(':', "Colon");
+			j.put(key, readValue(source));
+
+			c = source.peekSignificant();
+			if (c == ',') {
+				source.read();
+				c = source.peekSignificant();
+			} else if (c == '}') {
+				source.read();
+				if (shape != null)
+					j.setShape(shape);
+				return j;
 			} else {
-				throw new JSONParseException(String.format("Invalid token %s; expected value token", tokenToString(token)));
+				throw source.unexpected(c, "Comma or ObjectEnd");
 			}
-		} else {
-			return token;
 		}
 	}
-	
-	protected static class TokenBuffer {
-		@Nonnull public final List<Object> list;
-		public int position = 0;
-		
-		public TokenBuffer(@Nonnull List<Object> list) {
-			this.list = list;
+
+	@Nonnull
+	protected JSONList<Object> readList(@Nonnull JSONSource source) {
+		source.read();
+		JSONList<Object> j = new JSONList<>().setNumberMode(numberMode);
+		int c = source.peekSignificant();
+		if (c == ']') {
+			source.read();
+			return j;
+		}
+		while (true) {
+			j.add(readValue(source));
+
+			c = source.peekSignificant();
+			if (c == ',') {
+				source.read();
+			} else if (c == ']') {
+				source.read();
+				return j;
+			} else {
+				throw source.unexpected(c, "Comma or ListEnd");
+			}
 		}
-		
-		public int length() {
-			return list.size();
+	}
+
+	@Nullable
+	protected Object readValue(@Nonnull JSONSource source) {
+		int c = source.peekSignificant();
+		switch (c) {
+			case '{':
+				return readObject(source);
+			case '[':
+				return readList(source);
+			case '"':
+			case '\'':
+				return source.readString();
+			default:
+				if (!JSONSource.isLiteralCharacter(c))
+					throw source.unexpected(c, "value token");
+				return getLiteralValue(source, source.readLiteral());
 		}
-		
-		public int tokensLeft() {
-			return list.size() - position;
+	}
+
+	@Nonnull
+	protected JSONObject readObject(@Nonnull JSONSource source, @Nonnull JSONProjection projection) {
+		if (projection == JSONProjection.ALL)
+			return readObject(source);
+		source.read();
+		JSONObject j = new JSONObject().setNumberMode(numberMode);
+		int c = source.peekSignificant();
+		if (c == '}') {
+			source.read();
+			return j;
 		}
-		
-		public boolean hasLeft() {
-			return tokensLeft() > 0;
+		JSONShape shape = source.getRootShape();
+		while (true) {
+			if (c != '"' && c != '\'')
+				throw source.unexpected(c, "key token");
+			StringBuilder sb = source.sb;
+			sb.setLength(0);
+			source.readString(sb);
+			JSONProjection child = projection.getChild(sb);
+			if (child == null) {
+				source.expect(':', "Colon");
+				source.skipValue();
+			} else {
+				String key = sb.toString();
+				if (shape != null) {
+					shape = shape.next(key);
+					if (shape != null)
+						key = shape.getKey(shape.size() - 1);
+				}
+				source.expect(':', "Colon");
+				j.put(key, readValue(source, child));
+			}
+
+			c = source.peekSignificant();
+			if (c == ',') {
+				source.read();
+				c = source.peekSignificant();
+			} else if (c == '}') {
+				source.read();
+				if (shape != null)
+					j.setShape(shape);
+				return j;
+			} else {
+				throw source.unexpected(c, "Comma or ObjectEnd");
+			}
 		}
-		
-		public void seek(int offset) {
-			int newPosition = position + offset;
-			if (newPosition < 0 || newPosition > list.size())
-				throw new IndexOutOfBoundsException();
-			position = newPosition;
+	}
+
+	@Nonnull
+	protected JSONList<Object> readList(@Nonnull JSONSource source, @Nonnull JSONProjection projection) {
+		if (projection == JSONProjection.ALL)
+			return readList(source);
+		source.read();
+		JSONList<Object> j = new JSONList<>().setNumberMode(numberMode);
+		int c = source.peekSignificant();
+		if (c == ']') {
+			source.read();
+			return j;
 		}
-		
-		public void seekTo(int position) {
-			if (position < 0 || position > list.size())
-				throw new IndexOutOfBoundsException();
-			this.position = position;
+		while (true) {
+			j.add(readValue(source, projection));
+
+			c = source.peekSignificant();
+			if (c == ',') {
+				source.read();
+			} else if (c == ']') {
+				source.read();
+				return j;
+			} else {
+				throw source.unexpected(c, "Comma or ListEnd");
+			}
 		}
+	}
+
+	@Nullable
+	protected Object readValue(@Nonnull JSONSource source, @Nullable JSONProjection projection) {
+		if (projection == null || projection == JSONProjection.ALL)
+			return readValue(source);
+		int c = source.peekSignificant();
+		if (c == '{')
+			return readObject(source, projection);
+		else if (c == '[')
+			return readList(source, projection);
+		return readValue(source);
+	}
 
-		@Nullable
-		public Object get() {
-			if (position >= list.size())
-				throw new IndexOutOfBoundsException();
-			return list.get(position++);
+	@Nullable
+	protected Object getLiteralValue(@Nonnull JSONSource source, @Nonnull JSONSource.Literal kind) {
+		if (numberMode == NumberMode.Lazy && (kind == JSONSource.Literal.Integer || kind == JSONSource.Literal.Decimal))
+			return JSONNumber.ofText(source.literal, source.literalLength, kind == JSONSource.Literal.Integer);
+		if (numberMode == NumberMode.Primitive) {
+			if (kind == JSONSource.Literal.Integer) {
+				if (source.literalLength <= 18)
+					return JSONNumber.of(JSONSource.parseSmallLong(source.literal, source.literalLength));
+				BigInteger value = source.getLiteralBigInt();
+				return value.bitLength() < 64 ? JSONNumber.of(value.longValue()) : value;
+			} else if (kind == JSONSource.Literal.Decimal) {
+				double value = source.getLiteralDouble();
+				return Double.isInfinite(value) || (value == 0 && !source.isLiteralZero()) ? source.getLiteralBigDecimal() : JSONNumber.of(value);
+			}
 		}
+		return source.getLiteralValue(kind);
 	}
-}
\ No newline at end of file
+}
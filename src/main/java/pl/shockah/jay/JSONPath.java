@@ -7,664 +7,520 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.Arrays;
 
 public class JSONPath {
+	public static final int MAX_CACHED_PATHS = 4096;
+
+	@Nonnull protected static final JSONCache<String, JSONCompiledPath> cache = new JSONCache<>(MAX_CACHED_PATHS);
+
 	@Nonnull public final JSONObject json;
 	
 	public JSONPath(@Nonnull JSONObject json) {
 		this.json = json;
 	}
-	
+
 	protected static String[] splitPath(@Nonnull String path) {
-		return path.split("\\.");
+		return compile(path).keys.clone();
+	}
+
+	@Nonnull
+	protected static JSONCompiledPath compile(@Nonnull String[] path) {
+		return new JSONCompiledPath(String.join(".", path), path);
+	}
+
+	@Nonnull
+	public static JSONCompiledPath compile(@Nonnull String path) {
+		JSONCompiledPath compiled = cache.get(path);
+		if (compiled != null)
+			return compiled;
+		return cache.put(path, JSONCompiledPath.compile(path));
 	}
 
 	public boolean getBool(@Nonnull String path) {
-		return getBool(splitPath(path));
+		return compile(path).getBool(json);
 	}
-	
+
 	public boolean getBool(@Nonnull String path, boolean def) {
-		return getBool(splitPath(path), def);
+		return compile(path).getBool(json, def);
 	}
 
 	@Nullable
 	public Boolean getOptionalBool(@Nonnull String path) {
-		return getOptionalBool(splitPath(path));
+		return compile(path).getOptionalBool(json);
 	}
 	
 	public void onBool(@Nonnull String path, @Nonnull Action1<Boolean> f) {
-		onBool(splitPath(path), f);
+		compile(path).onBool(json, f);
 	}
 
 	public void onBool(@Nonnull String path, @Nonnull Action1<Boolean> f, @Nonnull Action0 orElse) {
-		onBool(splitPath(path), f, orElse);
+		compile(path).onBool(json, f, orElse);
 	}
-	
+
 	protected boolean getBool(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getBool(path[0]);
-		return new JSONPath(json.getObject(path[0])).getBool(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getBool(json);
 	}
-	
+
 	protected boolean getBool(@Nonnull String[] path, boolean def) {
-		if (path.length == 1)
-			return json.getBool(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getBool(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getBool(json, def);
 	}
 
 	@Nullable
 	protected Boolean getOptionalBool(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalBool(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalBool(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalBool(json);
 	}
-	
+
 	protected void onBool(@Nonnull String[] path, @Nonnull Action1<Boolean> f) {
-		if (path.length == 1)
-			json.onBool(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onBool(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onBool(json, f);
 	}
 
 	protected void onBool(@Nonnull String[] path, @Nonnull Action1<Boolean> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onBool(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onBool(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onBool(json, f, orElse);
 	}
 
 	@Nonnull
 	public BigInteger getBigInt(@Nonnull String path) {
-		return getBigInt(splitPath(path));
+		return compile(path).getBigInt(json);
 	}
 
 	@Nonnull
 	public BigInteger getBigInt(@Nonnull String path, @Nonnull BigInteger def) {
-		return getBigInt(splitPath(path), def);
+		return compile(path).getBigInt(json, def);
 	}
 
 	@Nullable
 	public BigInteger getOptionalBigInt(@Nonnull String path) {
-		return getOptionalBigInt(splitPath(path));
+		return compile(path).getOptionalBigInt(json);
 	}
 	
 	public void onBigInt(@Nonnull String path, @Nonnull Action1<BigInteger> f) {
-		onBigInt(splitPath(path), f);
+		compile(path).onBigInt(json, f);
 	}
 
 	public void onBigInt(@Nonnull String path, @Nonnull Action1<BigInteger> f, @Nonnull Action0 orElse) {
-		onBigInt(splitPath(path), f, orElse);
+		compile(path).onBigInt(json, f, orElse);
 	}
 
 	@Nonnull
 	protected BigInteger getBigInt(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getBigInt(path[0]);
-		return new JSONPath(json.getObject(path[0])).getBigInt(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getBigInt(json);
 	}
 
 	@Nonnull
 	protected BigInteger getBigInt(@Nonnull String[] path, @Nonnull BigInteger def) {
-		if (path.length == 1)
-			return json.getBigInt(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getBigInt(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getBigInt(json, def);
 	}
 
 	@Nullable
 	protected BigInteger getOptionalBigInt(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalBigInt(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalBigInt(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalBigInt(json);
 	}
-	
+
 	protected void onBigInt(@Nonnull String[] path, @Nonnull Action1<BigInteger> f) {
-		if (path.length == 1)
-			json.onBigInt(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onBigInt(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onBigInt(json, f);
 	}
 
 	protected void onBigInt(@Nonnull String[] path, @Nonnull Action1<BigInteger> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onBigInt(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onBigInt(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onBigInt(json, f, orElse);
 	}
-	
+
 	public int getInt(@Nonnull String path) {
-		return getInt(splitPath(path));
+		return compile(path).getInt(json);
 	}
-	
+
 	public int getInt(@Nonnull String path, int def) {
-		return getInt(splitPath(path), def);
+		return compile(path).getInt(json, def);
 	}
 
 	@Nullable
 	public Integer getOptionalInt(@Nonnull String path) {
-		return getOptionalInt(splitPath(path));
+		return compile(path).getOptionalInt(json);
 	}
 	
 	public void onInt(@Nonnull String path, @Nonnull Action1<Integer> f) {
-		onInt(splitPath(path), f);
+		compile(path).onInt(json, f);
 	}
 
 	public void onInt(@Nonnull String path, @Nonnull Action1<Integer> f, @Nonnull Action0 orElse) {
-		onInt(splitPath(path), f, orElse);
+		compile(path).onInt(json, f, orElse);
 	}
-	
+
 	protected int getInt(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getInt(path[0]);
-		return new JSONPath(json.getObject(path[0])).getInt(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getInt(json);
 	}
-	
+
 	protected int getInt(@Nonnull String[] path, int def) {
-		if (path.length == 1)
-			return json.getInt(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getInt(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getInt(json, def);
 	}
 
 	@Nullable
 	protected Integer getOptionalInt(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalInt(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalInt(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalInt(json);
 	}
-	
+
 	protected void onInt(@Nonnull String[] path, @Nonnull Action1<Integer> f) {
-		if (path.length == 1)
-			json.onInt(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onInt(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onInt(json, f);
 	}
 
 	protected void onInt(@Nonnull String[] path, @Nonnull Action1<Integer> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onInt(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onInt(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onInt(json, f, orElse);
 	}
-	
+
 	public long getLong(@Nonnull String path) {
-		return getLong(splitPath(path));
+		return compile(path).getLong(json);
 	}
-	
+
 	public long getLong(@Nonnull String path, long def) {
-		return getLong(splitPath(path), def);
+		return compile(path).getLong(json, def);
 	}
 
 	@Nullable
 	public Long getOptionalLong(@Nonnull String path) {
-		return getOptionalLong(splitPath(path));
+		return compile(path).getOptionalLong(json);
 	}
 	
 	public void onLong(@Nonnull String path, @Nonnull Action1<Long> f) {
-		onLong(splitPath(path), f);
+		compile(path).onLong(json, f);
 	}
 
 	public void onLong(@Nonnull String path, @Nonnull Action1<Long> f, @Nonnull Action0 orElse) {
-		onLong(splitPath(path), f, orElse);
+		compile(path).onLong(json, f, orElse);
 	}
-	
+
 	protected long getLong(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getLong(path[0]);
-		return new JSONPath(json.getObject(path[0])).getLong(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getLong(json);
 	}
-	
+
 	protected long getLong(@Nonnull String[] path, long def) {
-		if (path.length == 1)
-			return json.getLong(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getLong(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getLong(json, def);
 	}
 
 	@Nullable
 	protected Long getOptionalLong(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalLong(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalLong(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalLong(json);
 	}
-	
+
 	protected void onLong(@Nonnull String[] path, @Nonnull Action1<Long> f) {
-		if (path.length == 1)
-			json.onLong(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onLong(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onLong(json, f);
 	}
 
 	protected void onLong(@Nonnull String[] path, @Nonnull Action1<Long> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onLong(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onLong(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onLong(json, f, orElse);
 	}
 
 	@Nonnull
 	public BigDecimal getBigDecimal(@Nonnull String path) {
-		return getBigDecimal(splitPath(path));
+		return compile(path).getBigDecimal(json);
 	}
 
 	@Nonnull
 	public BigDecimal getBigDecimal(@Nonnull String path, @Nonnull BigDecimal def) {
-		return getBigDecimal(splitPath(path), def);
+		return compile(path).getBigDecimal(json, def);
 	}
 
 	@Nullable
 	public BigDecimal getOptionalBigDecimal(@Nonnull String path) {
-		return getOptionalBigDecimal(splitPath(path));
+		return compile(path).getOptionalBigDecimal(json);
 	}
 	
 	public void onBigDecimal(@Nonnull String path, @Nonnull Action1<BigDecimal> f) {
-		onBigDecimal(splitPath(path), f);
+		compile(path).onBigDecimal(json, f);
 	}
 
 	public void onBigDecimal(@Nonnull String path, @Nonnull Action1<BigDecimal> f, @Nonnull Action0 orElse) {
-		onBigDecimal(splitPath(path), f, orElse);
+		compile(path).onBigDecimal(json, f, orElse);
 	}
 
 	@Nonnull
 	protected BigDecimal getBigDecimal(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getBigDecimal(path[0]);
-		return new JSONPath(json.getObject(path[0])).getBigDecimal(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getBigDecimal(json);
 	}
 
 	@Nonnull
 	protected BigDecimal getBigDecimal(@Nonnull String[] path, @Nonnull BigDecimal def) {
-		if (path.length == 1)
-			return json.getBigDecimal(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getBigDecimal(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getBigDecimal(json, def);
 	}
 
 	@Nullable
 	protected BigDecimal getOptionalBigDecimal(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalBigDecimal(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalBigDecimal(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalBigDecimal(json);
 	}
 
 	protected void onBigDecimal(@Nonnull String[] path, @Nonnull Action1<BigDecimal> f) {
-		if (path.length == 1)
-			json.onBigDecimal(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onBigDecimal(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onBigDecimal(json, f);
 	}
 
 	protected void onBigDecimal(@Nonnull String[] path, @Nonnull Action1<BigDecimal> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onBigDecimal(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onBigDecimal(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onBigDecimal(json, f, orElse);
 	}
-	
+
 	public float getFloat(@Nonnull String path) {
-		return getFloat(splitPath(path));
+		return compile(path).getFloat(json);
 	}
-	
+
 	public float getFloat(@Nonnull String path, float def) {
-		return getFloat(splitPath(path), def);
+		return compile(path).getFloat(json, def);
 	}
 
 	@Nullable
 	public Float getOptionalFloat(@Nonnull String path) {
-		return getOptionalFloat(splitPath(path));
+		return compile(path).getOptionalFloat(json);
 	}
 	
 	public void onFloat(@Nonnull String path, @Nonnull Action1<Float> f) {
-		onFloat(splitPath(path), f);
+		compile(path).onFloat(json, f);
 	}
 
 	public void onFloat(@Nonnull String path, @Nonnull Action1<Float> f, @Nonnull Action0 orElse) {
-		onFloat(splitPath(path), f, orElse);
+		compile(path).onFloat(json, f, orElse);
 	}
-	
+
 	protected float getFloat(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getFloat(path[0]);
-		return new JSONPath(json.getObject(path[0])).getFloat(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getFloat(json);
 	}
-	
+
 	protected float getFloat(@Nonnull String[] path, float def) {
-		if (path.length == 1)
-			return json.getFloat(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getFloat(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getFloat(json, def);
 	}
 
 	@Nullable
 	protected Float getOptionalFloat(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalFloat(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalFloat(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalFloat(json);
 	}
-	
+
 	protected void onFloat(@Nonnull String[] path, @Nonnull Action1<Float> f) {
-		if (path.length == 1)
-			json.onFloat(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onFloat(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onFloat(json, f);
 	}
 
 	protected void onFloat(@Nonnull String[] path, @Nonnull Action1<Float> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onFloat(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onFloat(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onFloat(json, f, orElse);
 	}
-	
+
 	public double getDouble(@Nonnull String path) {
-		return getDouble(splitPath(path));
+		return compile(path).getDouble(json);
 	}
-	
+
 	public double getDouble(@Nonnull String path, double def) {
-		return getDouble(splitPath(path), def);
+		return compile(path).getDouble(json, def);
 	}
 
 	@Nullable
 	public Double getOptionalDouble(@Nonnull String path) {
-		return getOptionalDouble(splitPath(path));
+		return compile(path).getOptionalDouble(json);
 	}
 	
 	public void onDouble(@Nonnull String path, @Nonnull Action1<Double> f) {
-		onDouble(splitPath(path), f);
+		compile(path).onDouble(json, f);
 	}
 
 	public void onDouble(@Nonnull String path, @Nonnull Action1<Double> f, @Nonnull Action0 orElse) {
-		onDouble(splitPath(path), f, orElse);
+		compile(path).onDouble(json, f, orElse);
 	}
-	
+
 	protected double getDouble(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getDouble(path[0]);
-		return new JSONPath(json.getObject(path[0])).getDouble(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getDouble(json);
 	}
-	
+
 	protected double getDouble(@Nonnull String[] path, double def) {
-		if (path.length == 1)
-			return json.getDouble(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getDouble(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getDouble(json, def);
 	}
 
 	@Nullable
 	protected Double getOptionalDouble(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalDouble(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalDouble(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalDouble(json);
 	}
-	
+
 	protected void onDouble(@Nonnull String[] path, @Nonnull Action1<Double> f) {
-		if (path.length == 1)
-			json.onDouble(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onDouble(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onDouble(json, f);
 	}
 
 	protected void onDouble(@Nonnull String[] path, @Nonnull Action1<Double> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onDouble(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onDouble(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onDouble(json, f, orElse);
 	}
 
 	@Nonnull
 	public String getString(@Nonnull String path) {
-		return getString(splitPath(path));
+		return compile(path).getString(json);
 	}
 
 	@Nonnull
 	public String getString(@Nonnull String path, @Nonnull String def) {
-		return getString(splitPath(path), def);
+		return compile(path).getString(json, def);
 	}
 
 	@Nullable
 	public String getOptionalString(@Nonnull String path) {
-		return getOptionalString(splitPath(path));
+		return compile(path).getOptionalString(json);
 	}
 	
 	public void onString(@Nonnull String path, @Nonnull Action1<String> f) {
-		onString(splitPath(path), f);
+		compile(path).onString(json, f);
 	}
 
 	public void onString(@Nonnull String path, @Nonnull Action1<String> f, @Nonnull Action0 orElse) {
-		onString(splitPath(path), f, orElse);
+		compile(path).onString(json, f, orElse);
 	}
 
 	@Nonnull
 	protected String getString(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getString(path[0]);
-		return new JSONPath(json.getObject(path[0])).getString(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getString(json);
 	}
 
 	@Nonnull
 	protected String getString(@Nonnull String[] path, @Nonnull String def) {
-		if (path.length == 1)
-			return json.getString(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getString(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getString(json, def);
 	}
 
 	@Nullable
 	protected String getOptionalString(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalString(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalString(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalString(json);
 	}
-	
+
 	protected void onString(@Nonnull String[] path, @Nonnull Action1<String> f) {
-		if (path.length == 1)
-			json.onString(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onString(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onString(json, f);
 	}
 
 	protected void onString(@Nonnull String[] path, @Nonnull Action1<String> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onString(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onString(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onString(json, f, orElse);
 	}
 
 	@Nonnull
 	public JSONObject getObject(@Nonnull String path) {
-		return getObject(splitPath(path));
+		return compile(path).getObject(json);
 	}
 
 	@Nonnull
 	public JSONObject getObject(@Nonnull String path, @Nonnull JSONObject def) {
-		return getObject(splitPath(path), def);
+		return compile(path).getObject(json, def);
 	}
 
 	@Nonnull
 	public JSONObject getObjectOrEmpty(@Nonnull String path) {
-		return getObjectOrEmpty(splitPath(path));
+		return compile(path).getObjectOrEmpty(json);
 	}
 
 	@Nonnull
 	public JSONObject getObjectOrNew(@Nonnull String path) {
-		return getObjectOrNew(splitPath(path));
+		return compile(path).getObjectOrNew(json);
 	}
 
 	@Nullable
 	public JSONObject getOptionalObject(@Nonnull String path) {
-		return getOptionalObject(splitPath(path));
+		return compile(path).getOptionalObject(json);
 	}
 	
 	public void onObject(@Nonnull String path, @Nonnull Action1<JSONObject> f) {
-		onObject(splitPath(path), f);
+		compile(path).onObject(json, f);
 	}
 
 	public void onObject(@Nonnull String path, @Nonnull Action1<JSONObject> f, @Nonnull Action0 orElse) {
-		onObject(splitPath(path), f, orElse);
+		compile(path).onObject(json, f, orElse);
 	}
 
 	@Nonnull
 	protected JSONObject getObject(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getObject(path[0]);
-		return new JSONPath(json.getObject(path[0])).getObject(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getObject(json);
 	}
 
 	@Nonnull
 	protected JSONObject getObject(@Nonnull String[] path, @Nonnull JSONObject def) {
-		if (path.length == 1)
-			return json.getObject(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getObject(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getObject(json, def);
 	}
 
 	@Nonnull
 	protected JSONObject getObjectOrEmpty(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getObjectOrEmpty(path[0]);
-		if (!json.containsKey(path[0]))
-			return new JSONObject();
-		return new JSONPath(json.getObject(path[0])).getObjectOrEmpty(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getObjectOrEmpty(json);
 	}
 
 	@Nonnull
 	protected JSONObject getObjectOrNew(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getObjectOrNew(path[0]);
-		if (!json.containsKey(path[0]))
-			json.put(path[0], new JSONObject());
-		return new JSONPath(json.getObject(path[0])).getObjectOrNew(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getObjectOrNew(json);
 	}
 
 	@Nullable
 	protected JSONObject getOptionalObject(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalObject(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalObject(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalObject(json);
 	}
-	
+
 	protected void onObject(@Nonnull String[] path, @Nonnull Action1<JSONObject> f) {
-		if (path.length == 1)
-			json.onObject(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onObject(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onObject(json, f);
 	}
 
 	protected void onObject(@Nonnull String[] path, @Nonnull Action1<JSONObject> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onObject(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onObject(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onObject(json, f, orElse);
 	}
 
 	@Nonnull
 	public JSONList<?> getList(@Nonnull String path) {
-		return getList(splitPath(path));
+		return compile(path).getList(json);
 	}
 
 	@Nonnull
 	public JSONList<?> getList(@Nonnull String path, @Nonnull JSONList<?> def) {
-		return getList(splitPath(path), def);
+		return compile(path).getList(json, def);
 	}
 
 	@Nonnull
 	public JSONList<?> getListOrEmpty(@Nonnull String path) {
-		return getListOrEmpty(splitPath(path));
+		return compile(path).getListOrEmpty(json);
 	}
 
 	@Nonnull
 	public JSONList<?> getListOrNew(@Nonnull String path) {
-		return getListOrNew(splitPath(path));
+		return compile(path).getListOrNew(json);
 	}
 
 	@Nullable
 	public JSONList<?> getOptionalList(@Nonnull String path) {
-		return getOptionalList(splitPath(path));
+		return compile(path).getOptionalList(json);
 	}
 	
 	public void onList(@Nonnull String path, @Nonnull Action1<JSONList<?>> f) {
-		onList(splitPath(path), f);
+		compile(path).onList(json, f);
 	}
 
 	public void onList(@Nonnull String path, @Nonnull Action1<JSONList<?>> f, @Nonnull Action0 orElse) {
-		onList(splitPath(path), f, orElse);
+		compile(path).onList(json, f, orElse);
 	}
 
 	@Nonnull
 	protected JSONList<?> getList(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getList(path[0]);
-		return new JSONPath(json.getObject(path[0])).getList(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getList(json);
 	}
 
 	@Nonnull
 	protected JSONList<?> getList(@Nonnull String[] path, @Nonnull JSONList<?> def) {
-		if (path.length == 1)
-			return json.getList(path[0], def);
-		if (!json.containsKey(path[0]))
-			return def;
-		return new JSONPath(json.getObject(path[0])).getList(Arrays.copyOfRange(path, 1, path.length), def);
+		return compile(path).getList(json, def);
 	}
 
 	@Nonnull
 	protected JSONList<?> getListOrEmpty(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getListOrEmpty(path[0]);
-		if (!json.containsKey(path[0]))
-			return new JSONList<>();
-		return new JSONPath(json.getObject(path[0])).getListOrEmpty(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getListOrEmpty(json);
 	}
 
 	@Nonnull
 	protected JSONList<?> getListOrNew(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getListOrNew(path[0]);
-		if (!json.containsKey(path[0]))
-			json.put(path[0], new JSONList<>());
-		return new JSONPath(json.getObject(path[0])).getListOrNew(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getListOrNew(json);
 	}
 
 	@Nullable
 	protected JSONList<?> getOptionalList(@Nonnull String[] path) {
-		if (path.length == 1)
-			return json.getOptionalList(path[0]);
-		return new JSONPath(json.getObject(path[0])).getOptionalList(Arrays.copyOfRange(path, 1, path.length));
+		return compile(path).getOptionalList(json);
 	}
-	
+
 	protected void onList(@Nonnull String[] path, @Nonnull Action1<JSONList<?>> f) {
-		if (path.length == 1)
-			json.onList(path[0], f);
-		else
-			new JSONPath(json.getObject(path[0])).onList(Arrays.copyOfRange(path, 1, path.length), f);
+		compile(path).onList(json, f);
 	}
 
 	protected void onList(@Nonnull String[] path, @Nonnull Action1<JSONList<?>> f, @Nonnull Action0 orElse) {
-		if (path.length == 1)
-			json.onList(path[0], f, orElse);
-		else
-			new JSONPath(json.getObject(path[0])).onList(Arrays.copyOfRange(path, 1, path.length), f, orElse);
+		compile(path).onList(json, f, orElse);
 	}
 	
 	public void put(@Nonnull String path, @Nullable Object value) {
-		value = JSONObject.prepareObject(value);
-		put(splitPath(path), value);
+		compile(path).put(json, value);
 	}
-	
+
 	protected void put(@Nonnull String[] path, @Nullable Object value) {
-		if (path.length == 1)
-			json.put(path[0], value);
-		else
-			new JSONPath(json.getObjectOrNew(path[0])).put(Arrays.copyOfRange(path, 1, path.length), value);
+		compile(path).put(json, value);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+public final class JSONPathSet {
+	@Nonnull protected static final Object MISSING = new Object();
+
+	@Nonnull protected final JSONCompiledPath[] paths;
+	@Nonnull protected final Node root = new Node(null);
+
+	public JSONPathSet(@Nonnull JSONCompiledPath... paths) {
+		this.paths = paths.clone();
+		for (int i = 0; i < paths.length; i++) {
+			Node node = root;
+			for (String key : paths[i].keys)
+				node = node.getOrCreateChild(key);
+			node.addSlot(i);
+		}
+	}
+
+	public JSONPathSet(@Nonnull List<JSONCompiledPath> paths) {
+		this(paths.toArray(new JSONCompiledPath[0]));
+	}
+
+	@Nonnull
+	public static JSONPathSet of(@Nonnull String... paths) {
+		JSONCompiledPath[] compiled = new JSONCompiledPath[paths.length];
+		for (int i = 0; i < paths.length; i++)
+			compiled[i] = JSONPath.compile(paths[i]);
+		return new JSONPathSet(compiled);
+	}
+
+	public int size() {
+		return paths.length;
+	}
+
+	@Nonnull
+	public JSONCompiledPath getPath(int index) {
+		return paths[index];
+	}
+
+	protected void checkLength(int length) {
+		if (length < paths.length)
+			throw new IllegalArgumentException(String.format("Array length %d is smaller than path count %d", length, paths.length));
+	}
+
+	public int extract(@Nonnull JSONObject json, @Nonnull Object[] values) {
+		checkLength(values.length);
+		Arrays.fill(values, 0, paths.length, null);
+		return extract(root, json, values);
+	}
+
+	public int extract(@Nonnull JSONObject json, @Nonnull long[] values, long def) {
+		checkLength(values.length);
+		Arrays.fill(values, 0, paths.length, def);
+		return extract(root, json, values);
+	}
+
+	public int extract(@Nonnull JSONObject json, @Nonnull double[] values, double def) {
+		checkLength(values.length);
+		Arrays.fill(values, 0, paths.length, def);
+		return extract(root, json, values);
+	}
+
+	protected int extract(@Nonnull Node node, @Nonnull JSONObject json, @Nonnull Object values) {
+		int found = 0;
+		for (Node child : node.children) {
+			Object value = json.getOrDefault(child.key, MISSING);
+			if (value == MISSING)
+				continue;
+			for (int slot : child.slots) {
+				if (store(values, slot, value))
+					found++;
+			}
+			if (child.children.length != 0 && value instanceof JSONObject)
+				found += extract(child, (JSONObject)value, values);
+		}
+		return found;
+	}
+
+	protected static boolean store(@Nonnull Object values, int slot, @Nullable Object value) {
+		if (values instanceof Object[]) {
+			((Object[])values)[slot] = value;
+			return true;
+		}
+		if (value == null)
+			return false;
+		if (values instanceof long[]) {
+			BigInteger integer;
+			if (value instanceof JSONNumber.LongValue) {
+				((long[])values)[slot] = ((JSONNumber.LongValue)value).value;
+				return true;
+			} else if (value instanceof JSONNumber && ((JSONNumber)value).isInteger()) {
+				integer = ((JSONNumber)value).bigIntegerValue();
+			} else if (value instanceof BigInteger) {
+				integer = (BigInteger)value;
+			} else {
+				return false;
+			}
+			if (integer.bitLength() >= 64)
+				return false;
+			((long[])values)[slot] = integer.longValue();
+		} else {
+			double result;
+			if (value instanceof JSONNumber)
+				result = ((JSONNumber)value).doubleValue();
+			else if (value instanceof BigDecimal)
+				result = ((BigDecimal)value).doubleValue();
+			else if (value instanceof BigInteger)
+				result = ((BigInteger)value).doubleValue();
+			else
+				return false;
+			((double[])values)[slot] = result;
+		}
+		return true;
+	}
+
+	protected static final class Node {
+		protected static final Node[] NO_CHILDREN = new Node[0];
+		protected static final int[] NO_SLOTS = new int[0];
+
+		@Nullable protected final String key;
+		@Nonnull protected Node[] children = NO_CHILDREN;
+		@Nonnull protected int[] slots = NO_SLOTS;
+
+		protected Node(@Nullable String key) {
+			this.key = key;
+		}
+
+		@Nonnull
+		protected Node getOrCreateChild(@Nonnull String key) {
+			for (Node child : children) {
+				if (key.equals(child.key))
+					return child;
+			}
+			Node child = new Node(key);
+			children = Arrays.copyOf(children, children.length + 1);
+			children[children.length - 1] = child;
+			return child;
+		}
+
+		protected void addSlot(int slot) {
+			slots = Arrays.copyOf(slots, slots.length + 1);
+			slots[slots.length - 1] = slot;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public abstract class JSONPool<T> {
+	public static final int MAX_RETAINED_CHARS = 1 << 16;
+	public static final int MAX_RETAINED_BYTES = 1 << 17;
+	protected static final int PROBES = 4;
+
+	@Nonnull public static final JSONPool<StringBuilder> STRING_BUILDERS = new JSONPool<StringBuilder>() {
+		@Override
+		@Nonnull
+		protected StringBuilder create() {
+			return new StringBuilder(256);
+		}
+
+		@Override
+		protected boolean recycle(@Nonnull StringBuilder sb) {
+			sb.setLength(0);
+			return sb.capacity() <= MAX_RETAINED_CHARS;
+		}
+	};
+
+	@Nonnull public static final JSONPool<JSONByteSink> BYTE_SINKS = new JSONPool<JSONByteSink>() {
+		@Override
+		@Nonnull
+		protected JSONByteSink create() {
+			return new JSONByteSink();
+		}
+
+		@Override
+		protected boolean recycle(@Nonnull JSONByteSink sink) {
+			sink.reset();
+			return sink.buffer.length <= MAX_RETAINED_BYTES;
+		}
+	};
+
+	@Nonnull protected final AtomicReferenceArray<T> slots;
+	protected final int mask;
+
+	public JSONPool() {
+		this(Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	public JSONPool(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, PROBES) * 2 - 1);
+		slots = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+
+	@Nonnull
+	public static JSONPool<char[]> ofChars(final int length) {
+		return new JSONPool<char[]>() {
+			@Override
+			@Nonnull
+			protected char[] create() {
+				return new char[length];
+			}
+
+			@Override
+			protected boolean recycle(@Nonnull char[] chars) {
+				return chars.length <= MAX_RETAINED_CHARS;
+			}
+		};
+	}
+
+	@Nonnull
+	protected abstract T create();
+
+	protected abstract boolean recycle(@Nonnull T object);
+
+	@Nonnull
+	public T acquire() {
+		int home = getHomeSlot();
+		for (int i = 0; i < PROBES; i++) {
+			int slot = (home + i) & mask;
+			if (slots.get(slot) != null) {
+				T object = slots.getAndSet(slot, null);
+				if (object != null)
+					return object;
+			}
+		}
+		return create();
+	}
+
+	public void release(@Nonnull T object) {
+		if (!recycle(object))
+			return;
+		int home = getHomeSlot();
+		for (int i = 0; i < PROBES; i++) {
+			int slot = (home + i) & mask;
+			if (slots.get(slot) == null && slots.compareAndSet(slot, null, object))
+				return;
+		}
+	}
+
+	protected int getHomeSlot() {
+		return (int)(Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32);
+	}
+}
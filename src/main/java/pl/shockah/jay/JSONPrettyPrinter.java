@@ -2,18 +2,21 @@ package pl.shockah.jay;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.stream.BaseStream;
 
 public class JSONPrettyPrinter extends JSONPrinter {
 	public static final String DEFAULT_INDENT = "\t";
+
+	@Nonnull protected static final JSONPrettyPrinter SHARED = new JSONPrettyPrinter();
 	
 	public final String indent;
 	
 	protected boolean compactLiterals = true;
 	protected int addInitialCompactNewlineForAtLeast = 4;
 	protected int addCompactNewlineEvery = 8;
+	@Nonnull protected volatile char[] newlineIndents = new char[0];
 	
 	public JSONPrettyPrinter() {
 		this(DEFAULT_INDENT);
@@ -39,140 +42,217 @@ public class JSONPrettyPrinter extends JSONPrinter {
 
 	@Override
 	@Nonnull
-	public String toString(@Nonnull JSONObject j) {
-		return toString(j, 0);
+	public JSONPrettyPrinter setEscapeNonAscii(boolean escapeNonAscii) {
+		super.setEscapeNonAscii(escapeNonAscii);
+		return this;
 	}
 
+	@Override
 	@Nonnull
-	protected String toString(@Nonnull JSONObject j, int indentLevel) {
-		StringBuilder sb = new StringBuilder();
-		sb.append('{');
+	public JSONPrettyPrinter setKeyCache(@Nullable JSONKeyCache keyCache) {
+		super.setKeyCache(keyCache);
+		return this;
+	}
+
+	@Override
+	protected void writeValue(@Nonnull JSONSink sink, @Nullable Object o) {
+		writeValue(sink, o, 0);
+	}
+
+	protected void writeObject(@Nonnull JSONSink sink, @Nonnull JSONObject j, int indentLevel) {
+		sink.append('{');
 		
 		int i = 0;
 		for (Map.Entry<String, Object> entry : j.entrySet()) {
-			sb.append('\n');
-			
-			insertIndent(sb, indentLevel + 1);
-			sb.append(toString(entry.getKey()));
-			sb.append(": ");
-			sb.append(toString(entry.getValue(), indentLevel + 1));
+			writeNewline(sink, indentLevel + 1);
+			writeKey(sink, entry.getKey());
+			sink.append(' ');
+			writeValue(sink, entry.getValue(), indentLevel + 1);
 			
 			if (i != j.size() - 1)
-				sb.append(',');
+				sink.append(',');
 			
 			String comment = j.getComment(entry.getKey());
 			if (comment != null) {
-				sb.append(" //");
-				sb.append(comment);
+				sink.append(" //");
+				sink.append(comment);
 			}
 			
 			i++;
 		}
 		
-		sb.append('\n');
-		insertIndent(sb, indentLevel);
-		sb.append('}');
-		return sb.toString();
-	}
-
-	@Override
-	@Nonnull
-	public String toString(@Nonnull JSONList<?> j) {
-		return toString(j, 0);
+		writeNewline(sink, indentLevel);
+		sink.append('}');
 	}
 
-	@Nonnull
-	protected String toString(@Nonnull JSONList<?> j, int indentLevel) {
-		StringBuilder sb = new StringBuilder();
-		sb.append('[');
+	protected void writeList(@Nonnull JSONSink sink, @Nonnull JSONList<?> j, int indentLevel) {
+		sink.append('[');
 		
-		boolean compact = false;
-		if (compactLiterals) {
-			compact = true;
-			for (Object o : j) {
-				if (!(o instanceof Boolean || o instanceof BigInteger || o instanceof BigDecimal || o instanceof String)) {
-					compact = false;
-					break;
-				}
-			}
-		}
-		
-		if (compact) {
+		if (compactLiterals && j.nonLiterals == 0) {
 			if (j.size() < addInitialCompactNewlineForAtLeast) {
-				int i = 0;
-				for (Object o : j) {
+				for (int i = 0; i < j.size(); i++) {
 					if (i != 0)
-						sb.append(", ");
-					sb.append(toString(o, indentLevel + 1));
-					i++;
+						sink.append(", ");
+					writeElement(sink, j, i, indentLevel + 1);
 				}
 				
-				sb.append(']');
+				sink.append(']');
 			} else {
-				sb.append('\n');
-				insertIndent(sb, indentLevel + 1);
+				writeNewline(sink, indentLevel + 1);
 				
-				int i = 0;
-				for (Object o : j) {
+				for (int i = 0; i < j.size(); i++) {
 					if (i != 0) {
-						sb.append(',');
+						sink.append(',');
 						if (i % addCompactNewlineEvery == 0) {
-							sb.append('\n');
-							insertIndent(sb, indentLevel + 1);
+							writeNewline(sink, indentLevel + 1);
 						} else {
-							sb.append(' ');
+							sink.append(' ');
 						}
 					}
-					sb.append(toString(o, indentLevel + 1));
-					i++;
+					writeElement(sink, j, i, indentLevel + 1);
 				}
 				
-				sb.append('\n');
-				insertIndent(sb, indentLevel);
-				sb.append(']');
+				writeNewline(sink, indentLevel);
+				sink.append(']');
 			}
 		} else {
-			int i = 0;
-			for (Object o : j) {
+			for (int i = 0; i < j.size(); i++) {
 				if (i != 0)
-					sb.append(',');
-				sb.append('\n');
-				
-				insertIndent(sb, indentLevel + 1);
-				sb.append(toString(o, indentLevel + 1));
-				i++;
+					sink.append(',');
+				writeNewline(sink, indentLevel + 1);
+				writeElement(sink, j, i, indentLevel + 1);
 			}
 			
-			sb.append('\n');
-			insertIndent(sb, indentLevel);
-			sb.append(']');
+			writeNewline(sink, indentLevel);
+			sink.append(']');
 		}
-		
-		return sb.toString();
 	}
 
-	@Nonnull
-	protected String toString(@Nullable Object o, int indentLevel) {
-		if (o == null)
-			return "null";
-		else if (o instanceof String)
-			return toString((String)o);
-		else if (o instanceof Boolean)
-			return (Boolean)o ? "true" : "false";
-		else if (o instanceof BigInteger)
-			return o.toString();
-		else if (o instanceof BigDecimal)
-			return o.toString();
-		else if (o instanceof JSONObject)
-			return toString((JSONObject)o, indentLevel);
+	protected void writeElement(@Nonnull JSONSink sink, @Nonnull JSONList<?> j, int index, int indentLevel) {
+		if (j.storage == JSONList.OBJECTS)
+			writeValue(sink, j.getRaw(index), indentLevel);
+		else
+			writeElement(sink, j, index);
+	}
+
+	protected void writeValue(@Nonnull JSONSink sink, @Nullable Object o, int indentLevel) {
+		if (o instanceof JSONObject)
+			writeObject(sink, (JSONObject)o, indentLevel);
 		else if (o instanceof JSONList<?>)
-			return toString((JSONList<?>)o, indentLevel);
+			writeList(sink, (JSONList<?>)o, indentLevel);
+		else if (o instanceof Map<?, ?>)
+			writeMap(sink, (Map<?, ?>)o, indentLevel);
+		else if (o instanceof Iterable<?>)
+			writeIterator(sink, ((Iterable<?>)o).iterator(), indentLevel);
+		else if (o instanceof Iterator<?>)
+			writeIterator(sink, (Iterator<?>)o, indentLevel);
+		else if (o instanceof BaseStream<?, ?>)
+			writeIterator(sink, ((BaseStream<?, ?>)o).iterator(), indentLevel);
 		else
-			throw new IllegalArgumentException();
+			super.writeValue(sink, o);
+	}
+
+	protected void writeMap(@Nonnull JSONSink sink, @Nonnull Map<?, ?> map, int indentLevel) {
+		sink.append('{');
+		
+		boolean first = true;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			if (first)
+				first = false;
+			else
+				sink.append(',');
+			writeNewline(sink, indentLevel + 1);
+			writeKey(sink, (String)entry.getKey());
+			sink.append(' ');
+			writeValue(sink, entry.getValue(), indentLevel + 1);
+		}
+		
+		writeNewline(sink, indentLevel);
+		sink.append('}');
+	}
+
+	protected void writeIterator(@Nonnull JSONSink sink, @Nonnull Iterator<?> iterator, int indentLevel) {
+		if (!compactLiterals) {
+			sink.append('[');
+			for (int i = 0; iterator.hasNext(); i++) {
+				if (i != 0)
+					sink.append(',');
+				writeNewline(sink, indentLevel + 1);
+				writeValue(sink, iterator.next(), indentLevel + 1);
+			}
+			writeNewline(sink, indentLevel);
+			sink.append(']');
+			return;
+		}
+
+		Object[] head = new Object[Math.max(addInitialCompactNewlineForAtLeast, 0)];
+		int count = 0;
+		boolean literals = true;
+		while (count < head.length && iterator.hasNext()) {
+			Object o = iterator.next();
+			head[count++] = o;
+			if (!isCompactLiteral(o))
+				literals = false;
+		}
+
+		sink.append('[');
+		if (literals && count < addInitialCompactNewlineForAtLeast) {
+			for (int i = 0; i < count; i++) {
+				if (i != 0)
+					sink.append(", ");
+				writeValue(sink, head[i], indentLevel + 1);
+			}
+			sink.append(']');
+			return;
+		}
+
+		if (literals)
+			writeNewline(sink, indentLevel + 1);
+		boolean previousLiteral = true;
+		for (int i = 0; i < count || iterator.hasNext(); i++) {
+			Object o = i < count ? head[i] : iterator.next();
+			boolean literal = literals && isCompactLiteral(o);
+			if (i != 0) {
+				sink.append(',');
+				if (!literal || !previousLiteral || i % addCompactNewlineEvery == 0)
+					writeNewline(sink, indentLevel + 1);
+				else
+					sink.append(' ');
+			} else if (!literals) {
+				writeNewline(sink, indentLevel + 1);
+			}
+			writeValue(sink, o, indentLevel + 1);
+			previousLiteral = literal;
+		}
+
+		writeNewline(sink, indentLevel);
+		sink.append(']');
+	}
+
+	protected static boolean isCompactLiteral(@Nullable Object o) {
+		return JSONList.isLiteral(o) || o instanceof Number;
+	}
+	
+	@Nonnull
+	protected char[] getNewlineIndents(int indentLevel) {
+		char[] indents = newlineIndents;
+		if (indents.length < 1 + indentLevel * indent.length()) {
+			int levels = Math.max(indentLevel * 2, 16);
+			StringBuilder sb = new StringBuilder(1 + levels * indent.length());
+			sb.append('\n');
+			for (int i = 0; i < levels; i++)
+				sb.append(indent);
+			indents = sb.toString().toCharArray();
+			newlineIndents = indents;
+		}
+		return indents;
+	}
+
+	protected void writeNewline(@Nonnull JSONSink sink, int indentLevel) {
+		sink.append(getNewlineIndents(indentLevel), 0, 1 + indentLevel * indent.length());
 	}
 	
-	protected void insertIndent(@Nonnull StringBuilder sb, int indentLevel) {
-		for (int i = 0; i < indentLevel; i++)
-			sb.append(indent);
+	protected void insertIndent(@Nonnull JSONSink sink, int indentLevel) {
+		sink.append(getNewlineIndents(indentLevel), 1, 1 + indentLevel * indent.length());
 	}
-}
\ No newline at end of file
+}
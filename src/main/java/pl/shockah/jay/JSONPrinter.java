@@ -2,76 +2,480 @@ package pl.shockah.jay;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.BaseStream;
 
 public class JSONPrinter {
+	protected static final char[][] ESCAPES = new char[128][];
+	protected static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	protected static final int MIN_CACHED_FORM_LENGTH = 64;
+	protected static final int MIN_PARALLEL_CHUNK_SIZE = 1024;
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+
+	static {
+		for (int c = 0; c < 0x20; c++)
+			ESCAPES[c] = new char[] { '\\', 'u', '0', '0', HEX_DIGITS[c >> 4], HEX_DIGITS[c & 0xF] };
+		ESCAPES['\b'] = new char[] { '\\', 'b' };
+		ESCAPES['\f'] = new char[] { '\\', 'f' };
+		ESCAPES['\n'] = new char[] { '\\', 'n' };
+		ESCAPES['\r'] = new char[] { '\\', 'r' };
+		ESCAPES['\t'] = new char[] { '\\', 't' };
+		ESCAPES['"'] = new char[] { '\\', '"' };
+		ESCAPES['\\'] = new char[] { '\\', '\\' };
+	}
+
+	protected boolean escapeNonAscii = false;
+	@Nullable protected JSONKeyCache keyCache;
+	protected boolean cacheForms = false;
+	@Nullable protected ForkJoinPool parallelPool;
+	protected int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	public boolean isEscapingNonAscii() {
+		return escapeNonAscii;
+	}
+
+	@Nonnull
+	public JSONPrinter setEscapeNonAscii(boolean escapeNonAscii) {
+		this.escapeNonAscii = escapeNonAscii;
+		return this;
+	}
+
+	@Nullable
+	public JSONKeyCache getKeyCache() {
+		return keyCache;
+	}
+
+	@Nonnull
+	public JSONPrinter setKeyCache(@Nullable JSONKeyCache keyCache) {
+		this.keyCache = keyCache;
+		return this;
+	}
+
+	public boolean isCachingForms() {
+		return cacheForms;
+	}
+
+	@Nonnull
+	public JSONPrinter setCacheForms(boolean cacheForms) {
+		this.cacheForms = cacheForms;
+		return this;
+	}
+
+	@Nullable
+	public ForkJoinPool getParallelPool() {
+		return parallelPool;
+	}
+
+	@Nonnull
+	public JSONPrinter setParallelPool(@Nullable ForkJoinPool parallelPool) {
+		this.parallelPool = parallelPool;
+		return this;
+	}
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	@Nonnull
+	public JSONPrinter setParallelThreshold(int parallelThreshold) {
+		if (parallelThreshold < 1)
+			throw new IllegalArgumentException();
+		this.parallelThreshold = parallelThreshold;
+		return this;
+	}
+
 	@Nonnull
 	public String toString(@Nonnull JSONObject j) {
-		StringBuilder sb = new StringBuilder();
-		sb.append('{');
+		return toString((Object)j);
+	}
+
+	@Nonnull
+	public String toString(@Nonnull JSONList<?> j) {
+		return toString((Object)j);
+	}
+
+	@Nonnull
+	protected String toString(@Nonnull String s) {
+		return toString((Object)s);
+	}
+
+	@Nonnull
+	protected String toString(@Nullable Object o) {
+		StringBuilder sb = JSONPool.STRING_BUILDERS.acquire();
+		try {
+			write(new JSONStringSink(sb), o);
+			return sb.toString();
+		} finally {
+			JSONPool.STRING_BUILDERS.release(sb);
+		}
+	}
+
+	public void write(@Nonnull JSONSink sink, @Nullable Object o) {
+		writeValue(sink, o);
+	}
+
+	public void write(@Nonnull Appendable out, @Nullable Object o) throws IOException {
+		JSONSink sink = JSONSink.of(out);
+		write(sink, o);
+		sink.flush();
+	}
+
+	public void write(@Nonnull OutputStream out, @Nullable Object o) throws IOException {
+		JSONSink sink = JSONSink.of(out);
+		write(sink, o);
+		sink.flush();
+	}
+
+	@Nonnull
+	public byte[] toBytes(@Nullable Object o) {
+		JSONByteSink sink = JSONPool.BYTE_SINKS.acquire();
+		try {
+			write(sink, o);
+			sink.finish();
+			return sink.toByteArray();
+		} finally {
+			JSONPool.BYTE_SINKS.release(sink);
+		}
+	}
+
+	public int write(@Nonnull byte[] buffer, int offset, @Nullable Object o) {
+		JSONByteSink sink = new JSONByteSink(buffer, offset, buffer.length - offset);
+		write(sink, o);
+		sink.finish();
+		return sink.size();
+	}
+
+	public void write(@Nonnull ByteBuffer buffer, @Nullable Object o) {
+		if (buffer.hasArray()) {
+			int offset = buffer.arrayOffset();
+			JSONByteSink sink = new JSONByteSink(buffer.array(), offset + buffer.position(), buffer.remaining());
+			write(sink, o);
+			sink.finish();
+			buffer.position(sink.getPosition() - offset);
+		} else {
+			JSONByteBufferSink sink = new JSONByteBufferSink(buffer);
+			write(sink, o);
+			sink.finish();
+			sink.drain(0);
+		}
+	}
+
+	protected void writeObject(@Nonnull JSONSink sink, @Nonnull JSONObject j) {
+		sink.append('{');
+		
+		if (j.hashed) {
+			boolean first = true;
+			for (Map.Entry<String, Object> entry : j.hashedEntrySet()) {
+				if (first)
+					first = false;
+				else
+					sink.append(',');
+				writeKey(sink, entry.getKey());
+				writeValue(sink, entry.getValue());
+			}
+		} else {
+			for (int i = 0; i < j.size; i++) {
+				if (i != 0)
+					sink.append(',');
+				writeKey(sink, j.keys[i]);
+				writeValue(sink, j.values[i]);
+			}
+		}
+		
+		sink.append('}');
+	}
+
+	protected void writeCached(@Nonnull JSONSink sink, @Nonnull Object node) {
+		JSONNodeState state = JSONNodeState.of(node, true);
+		JSONFragment form = state.getForm(escapeNonAscii);
+		if (form != null) {
+			sink.append(form);
+			return;
+		}
+		if (node instanceof JSONObject)
+			((JSONObject)node).attachChildren();
+		else
+			((JSONList<?>)node).attachChildren();
+		if (sink instanceof JSONStringSink || (sink.getClass() == JSONByteSink.class && ((JSONByteSink)sink).pendingSurrogate == 0)) {
+			state.setForm(renderForm(sink, node, MIN_CACHED_FORM_LENGTH), escapeNonAscii);
+		} else {
+			form = renderForm(sink instanceof JSONByteSink ? new JSONByteSink() : new JSONStringSink(), node, 0);
+			state.setForm(form, escapeNonAscii);
+			sink.append(form);
+		}
+	}
+
+	@Nullable
+	protected JSONFragment renderForm(@Nonnull JSONSink sink, @Nonnull Object node, int minLength) {
+		if (sink instanceof JSONStringSink) {
+			StringBuilder sb = ((JSONStringSink)sink).sb;
+			int start = sb.length();
+			writeNode(sink, node);
+			int end = sb.length();
+			if (end - start < minLength)
+				return null;
+			char[] chars = new char[end - start];
+			sb.getChars(start, end, chars, 0);
+			return new JSONFragment(chars);
+		} else {
+			JSONByteSink byteSink = (JSONByteSink)sink;
+			int start = byteSink.position;
+			writeNode(sink, node);
+			int end = byteSink.position;
+			if (end - start < minLength)
+				return null;
+			return JSONFragment.ofBytes(Arrays.copyOfRange(byteSink.buffer, start, end));
+		}
+	}
+
+	protected void writeNode(@Nonnull JSONSink sink, @Nonnull Object node) {
+		if (node instanceof JSONObject)
+			writeObject(sink, (JSONObject)node);
+		else
+			writeList(sink, (JSONList<?>)node);
+	}
+
+	protected void writeList(@Nonnull JSONSink sink, @Nonnull JSONList<?> j) {
+		ForkJoinPool parallelPool = this.parallelPool;
+		if (parallelPool != null && j.size() >= parallelThreshold) {
+			writeListParallel(sink, j, parallelPool);
+			return;
+		}
+
+		sink.append('[');
+		
+		for (int i = 0; i < j.size(); i++) {
+			if (i != 0)
+				sink.append(',');
+			writeElement(sink, j, i);
+		}
+		
+		sink.append(']');
+	}
+
+	protected void writeListParallel(@Nonnull JSONSink sink, @Nonnull JSONList<?> j, @Nonnull ForkJoinPool pool) {
+		int size = j.size();
+		int targetChunks = pool.getParallelism() * 4;
+		int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, (size + targetChunks - 1) / targetChunks);
+		ChunkTask[] tasks = new ChunkTask[(size + chunkSize - 1) / chunkSize];
+		for (int i = 0; i < tasks.length; i++) {
+			JSONSink chunk = sink instanceof JSONByteSink ? new JSONByteSink() : new JSONStringSink();
+			tasks[i] = new ChunkTask(chunk, j, i * chunkSize, Math.min(size, (i + 1) * chunkSize));
+		}
+
+		if (ForkJoinTask.getPool() == pool)
+			ForkJoinTask.invokeAll(tasks);
+		else
+			pool.invoke(new ChunksTask(tasks));
+
+		sink.append('[');
+		for (int i = 0; i < tasks.length; i++) {
+			if (i != 0)
+				sink.append(',');
+			JSONSink chunk = tasks[i].sink;
+			if (chunk instanceof JSONByteSink) {
+				JSONByteSink byteChunk = (JSONByteSink)chunk;
+				((JSONByteSink)sink).appendBytes(byteChunk.buffer, byteChunk.start, byteChunk.position);
+			} else {
+				StringBuilder sb = ((JSONStringSink)chunk).sb;
+				sink.append(sb, 0, sb.length());
+			}
+		}
+		sink.append(']');
+	}
+
+	protected void writeElement(@Nonnull JSONSink sink, @Nonnull JSONList<?> j, int index) {
+		if (j.storage == JSONList.INTS)
+			writeLong(sink, j.ints[index]);
+		else if (j.storage == JSONList.LONGS)
+			writeLong(sink, j.longs[index]);
+		else if (j.storage == JSONList.DOUBLES && j.clazz == null)
+			writeDouble(sink, j.doubles[index]);
+		else
+			writeValue(sink, j.getRaw(index));
+	}
+
+	protected void writeString(@Nonnull JSONSink sink, @Nonnull String s) {
+		writeString(sink, s, escapeNonAscii);
+	}
+
+	protected void writeKey(@Nonnull JSONSink sink, @Nonnull String key) {
+		JSONKeyCache keyCache = this.keyCache;
+		if (keyCache != null) {
+			JSONFragment fragment = keyCache.get(key, escapeNonAscii);
+			if (fragment != null) {
+				sink.append(fragment);
+				return;
+			}
+		}
+		writeString(sink, key);
+		sink.append(':');
+	}
+
+	protected static void writeString(@Nonnull JSONSink sink, @Nonnull String s, boolean escapeNonAscii) {
+		sink.append('"');
+		char[][] escapes = ESCAPES;
+		int length = s.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				char[] escape = escapes[c];
+				if (escape == null)
+					continue;
+				sink.append(s, start, i);
+				sink.append(escape, 0, escape.length);
+			} else if (escapeNonAscii) {
+				sink.append(s, start, i);
+				sink.append('\\');
+				sink.append('u');
+				sink.append(HEX_DIGITS[c >> 12]);
+				sink.append(HEX_DIGITS[(c >> 8) & 0xF]);
+				sink.append(HEX_DIGITS[(c >> 4) & 0xF]);
+				sink.append(HEX_DIGITS[c & 0xF]);
+			} else {
+				continue;
+			}
+			start = i + 1;
+		}
+		sink.append(s, start, length);
+		sink.append('"');
+	}
+
+	protected void writeLong(@Nonnull JSONSink sink, long value) {
+		sink.appendLong(value);
+	}
+
+	protected void writeDouble(@Nonnull JSONSink sink, double value) {
+		sink.appendDouble(value);
+	}
+
+	protected void writeValue(@Nonnull JSONSink sink, @Nullable Object o) {
+		if (o == null)
+			sink.append("null");
+		else if (o instanceof String)
+			writeString(sink, (String)o);
+		else if (o instanceof Boolean)
+			sink.append((Boolean)o ? "true" : "false");
+		else if (o instanceof JSONNumber.LongValue)
+			writeLong(sink, ((JSONNumber.LongValue)o).value);
+		else if (o instanceof JSONNumber.DoubleValue)
+			writeDouble(sink, ((JSONNumber.DoubleValue)o).value);
+		else if (o instanceof BigInteger && ((BigInteger)o).bitLength() < 64)
+			writeLong(sink, ((BigInteger)o).longValue());
+		else if (o instanceof BigInteger || o instanceof BigDecimal || o instanceof JSONNumber)
+			sink.append(o.toString());
+		else if (cacheForms && (o instanceof JSONObject || o instanceof JSONList<?>))
+			writeCached(sink, o);
+		else if (o instanceof JSONObject)
+			writeObject(sink, (JSONObject)o);
+		else if (o instanceof JSONList<?>)
+			writeList(sink, (JSONList<?>)o);
+		else
+			writeOther(sink, o);
+	}
+
+	protected void writeOther(@Nonnull JSONSink sink, @Nonnull Object o) {
+		if (o instanceof Integer || o instanceof Long || o instanceof Short || o instanceof Byte)
+			writeLong(sink, ((Number)o).longValue());
+		else if (o instanceof Double || o instanceof Float)
+			writeDouble(sink, checkDouble(((Number)o).doubleValue()));
+		else if (o instanceof Map<?, ?>)
+			writeMap(sink, (Map<?, ?>)o);
+		else if (o instanceof Iterable<?>)
+			writeIterator(sink, ((Iterable<?>)o).iterator());
+		else if (o instanceof Iterator<?>)
+			writeIterator(sink, (Iterator<?>)o);
+		else if (o instanceof BaseStream<?, ?>)
+			writeIterator(sink, ((BaseStream<?, ?>)o).iterator());
+		else
+			throw new IllegalArgumentException();
+	}
+
+	protected static double checkDouble(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			throw new NumberFormatException(String.format("Invalid number '%s'", value));
+		return value;
+	}
+
+	protected void writeMap(@Nonnull JSONSink sink, @Nonnull Map<?, ?> map) {
+		sink.append('{');
 		
 		boolean first = true;
-		for (Map.Entry<String, Object> entry : j.entrySet()) {
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
 			if (first)
 				first = false;
 			else
-				sb.append(',');
-			sb.append(toString(entry.getKey()));
-			sb.append(':');
-			sb.append(toString(entry.getValue()));
+				sink.append(',');
+			writeKey(sink, (String)entry.getKey());
+			writeValue(sink, entry.getValue());
 		}
 		
-		sb.append('}');
-		return sb.toString();
+		sink.append('}');
 	}
 
-	@Nonnull
-	public String toString(@Nonnull JSONList<?> j) {
-		StringBuilder sb = new StringBuilder();
-		sb.append('[');
+	protected void writeIterator(@Nonnull JSONSink sink, @Nonnull Iterator<?> iterator) {
+		sink.append('[');
 		
 		boolean first = true;
-		for (Object o : j) {
+		while (iterator.hasNext()) {
 			if (first)
 				first = false;
 			else
-				sb.append(',');
-			sb.append(toString(o));
+				sink.append(',');
+			writeValue(sink, iterator.next());
 		}
 		
-		sb.append(']');
-		return sb.toString();
+		sink.append(']');
 	}
 
-	@Nonnull
-	protected String toString(@Nonnull String s) {
-		s = s.replace("\\", "\\\\");
-		s = s.replace("\r", "\\r");
-		s = s.replace("\n", "\\n");
-		s = s.replace("\t", "\\t");
-		s = s.replace("\"", "\\\"");
-		return String.format("\"%s\"", s);
+	protected class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 4117395813628547052L;
+
+		@Nonnull protected final JSONSink sink;
+		@Nonnull protected final JSONList<?> list;
+		protected final int fromIndex;
+		protected final int toIndex;
+
+		protected ChunkTask(@Nonnull JSONSink sink, @Nonnull JSONList<?> list, int fromIndex, int toIndex) {
+			this.sink = sink;
+			this.list = list;
+			this.fromIndex = fromIndex;
+			this.toIndex = toIndex;
+		}
+
+		@Override
+		protected void compute() {
+			for (int i = fromIndex; i < toIndex; i++) {
+				if (i != fromIndex)
+					sink.append(',');
+				writeElement(sink, list, i);
+			}
+		}
 	}
 
-	@Nonnull
-	protected String toString(@Nullable Object o) {
-		if (o == null)
-			return "null";
-		else if (o instanceof String)
-			return toString((String)o);
-		else if (o instanceof Boolean)
-			return (Boolean)o ? "true" : "false";
-		else if (o instanceof BigInteger)
-			return o.toString();
-		else if (o instanceof BigDecimal)
-			return o.toString();
-		else if (o instanceof JSONObject)
-			return toString((JSONObject)o);
-		else if (o instanceof JSONList<?>)
-			return toString((JSONList<?>)o);
-		else
-			throw new IllegalArgumentException();
+	protected static class ChunksTask extends RecursiveAction {
+		private static final long serialVersionUID = -6200582734871256395L;
+
+		@Nonnull protected final ChunkTask[] tasks;
+
+		protected ChunksTask(@Nonnull ChunkTask[] tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(tasks);
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public abstract class JSONProjection {
+	@Nonnull public static final JSONProjection ALL = new JSONProjection() {
+		@Override
+		@Nonnull
+		public JSONProjection getChild(@Nonnull CharSequence key) {
+			return this;
+		}
+	};
+
+	@Nullable
+	public abstract JSONProjection getChild(@Nonnull CharSequence key);
+
+	@Nonnull
+	public static JSONProjection of(@Nonnull String... paths) {
+		JSONCompiledPath[] compiled = new JSONCompiledPath[paths.length];
+		for (int i = 0; i < paths.length; i++)
+			compiled[i] = JSONPath.compile(paths[i]);
+		return of(compiled);
+	}
+
+	@Nonnull
+	public static JSONProjection of(@Nonnull JSONPathSet paths) {
+		return of(paths.paths);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nonnull
+	public static JSONProjection of(@Nonnull JSONCompiledPath... paths) {
+		Map<String, Object> root = new LinkedHashMap<>();
+		for (JSONCompiledPath path : paths) {
+			Map<String, Object> node = root;
+			for (int i = 0; i < path.keys.length - 1 && node != null; i++) {
+				Object child = node.get(path.keys[i]);
+				if (child == null) {
+					child = new LinkedHashMap<String, Object>();
+					node.put(path.keys[i], child);
+				}
+				node = child == ALL ? null : (Map<String, Object>)child;
+			}
+			if (node != null)
+				node.put(path.last, ALL);
+		}
+		return build(root);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Nonnull
+	protected static JSONProjection build(@Nonnull Map<String, Object> node) {
+		String[] keys = new String[node.size()];
+		JSONProjection[] children = new JSONProjection[node.size()];
+		int i = 0;
+		for (Map.Entry<String, Object> entry : node.entrySet()) {
+			keys[i] = entry.getKey();
+			children[i] = entry.getValue() == ALL ? ALL : build((Map<String, Object>)entry.getValue());
+			i++;
+		}
+		return new Keys(keys, children);
+	}
+
+	protected static int hash(@Nonnull CharSequence key) {
+		if (key instanceof String)
+			return key.hashCode();
+		int hash = 0;
+		for (int i = 0; i < key.length(); i++)
+			hash = 31 * hash + key.charAt(i);
+		return hash;
+	}
+
+	protected static final class Keys extends JSONProjection {
+		@Nonnull protected final String[] keys;
+		@Nonnull protected final JSONProjection[] children;
+		@Nonnull protected final int[] index;
+
+		protected Keys(@Nonnull String[] keys, @Nonnull JSONProjection[] children) {
+			this.keys = keys;
+			this.children = children;
+			int capacity = Integer.highestOneBit(Math.max(keys.length, 1) * 2) * 2;
+			index = new int[capacity];
+			int mask = capacity - 1;
+			for (int i = 0; i < keys.length; i++) {
+				int slot = keys[i].hashCode() & mask;
+				while (index[slot] != 0)
+					slot = (slot + 1) & mask;
+				index[slot] = i + 1;
+			}
+		}
+
+		@Override
+		@Nullable
+		public JSONProjection getChild(@Nonnull CharSequence key) {
+			int mask = index.length - 1;
+			int slot = hash(key) & mask;
+			while (true) {
+				int i = index[slot] - 1;
+				if (i == -1)
+					return null;
+				String k = keys[i];
+				if (k.length() == key.length() && k.contentEquals(key))
+					return children[i];
+				slot = (slot + 1) & mask;
+			}
+		}
+	}
+}
@@ -0,0 +1,1263 @@
+package pl.shockah.jay;
+
+import pl.shockah.util.func.Action1;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public final class JSONQuery {
+	public static final int MAX_CACHED_QUERIES = 4096;
+
+	@Nonnull protected static final JSONCache<String, JSONQuery> cache = new JSONCache<>(MAX_CACHED_QUERIES);
+	@Nonnull protected static final Object NOTHING = new Object();
+
+	protected static final int EQUAL = 0;
+	protected static final int NOT_EQUAL = 1;
+	protected static final int LESS = 2;
+	protected static final int LESS_OR_EQUAL = 3;
+	protected static final int GREATER = 4;
+	protected static final int GREATER_OR_EQUAL = 5;
+
+	protected static final int LONG = 0;
+	protected static final int DOUBLE = 1;
+	protected static final int BIG = 2;
+
+	@Nonnull public final String query;
+	@Nonnull protected final Step[] steps;
+	protected final boolean singular;
+	protected final boolean rooted;
+	@Nonnull protected final boolean[] sized;
+
+	protected JSONQuery(@Nonnull String query, @Nonnull Step[] steps) {
+		this.query = query;
+		this.steps = steps;
+		boolean singular = true;
+		boolean rooted = false;
+		sized = new boolean[steps.length];
+		for (int i = 0; i < steps.length; i++) {
+			Step step = steps[i];
+			if (!(step instanceof SingularStep))
+				singular = false;
+			if (step.usesRoot())
+				rooted = true;
+			sized[i] = step.needsSize();
+		}
+		this.singular = singular;
+		this.rooted = rooted;
+	}
+
+	@Nonnull
+	public static JSONQuery compile(@Nonnull String query) {
+		JSONQuery compiled = cache.get(query);
+		if (compiled != null)
+			return compiled;
+		return cache.put(query, new Parser(query).parseQuery());
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return query;
+	}
+
+	public boolean isSingular() {
+		return singular;
+	}
+
+	@Nonnull
+	public List<Object> select(@Nullable Object json) {
+		if (singular) {
+			Object value = resolve(json);
+			List<Object> results = new ArrayList<>(1);
+			if (value != NOTHING)
+				results.add(value);
+			return results;
+		}
+		Collector collector = new Collector(json);
+		run(json, 0, collector);
+		return collector.results;
+	}
+
+	public void forEach(@Nullable Object json, @Nonnull Action1<Object> f) {
+		if (singular) {
+			Object value = resolve(json);
+			if (value != NOTHING)
+				f.call(value);
+			return;
+		}
+		run(json, 0, new ActionVisitor(json, f));
+	}
+
+	@Nullable
+	public Object first(@Nullable Object json) {
+		Object value = find(json, json);
+		return value == NOTHING ? null : value;
+	}
+
+	public boolean exists(@Nullable Object json) {
+		return find(json, json) != NOTHING;
+	}
+
+	public int count(@Nullable Object json) {
+		if (singular)
+			return resolve(json) == NOTHING ? 0 : 1;
+		Counter counter = new Counter(json);
+		run(json, 0, counter);
+		return counter.count;
+	}
+
+	public void extract(@Nonnull JSONSource source, @Nonnull JSONParser parser, @Nonnull Action1<Object> f) {
+		Object json = rooted ? parser.parse(source) : null;
+		StringBuilder key = JSONPool.STRING_BUILDERS.acquire();
+		try {
+			Extraction extraction = new Extraction(source, parser, new ActionVisitor(json, f), key);
+			extraction.prepare(0);
+			extraction.counts[0][0] = 1;
+			if (rooted) {
+				extraction.walk(json, 0);
+				return;
+			}
+			extraction.value(0);
+		} finally {
+			JSONPool.STRING_BUILDERS.release(key);
+		}
+		parser.expectEnd(source, "root value");
+	}
+
+	protected boolean usesRoot() {
+		return rooted;
+	}
+
+	@Nullable
+	protected Object find(@Nullable Object root, @Nullable Object json) {
+		if (singular)
+			return resolve(json);
+		FirstVisitor visitor = new FirstVisitor(root);
+		run(json, 0, visitor);
+		return visitor.value;
+	}
+
+	@Nullable
+	protected Object resolve(@Nullable Object json) {
+		for (Step step : steps) {
+			json = ((SingularStep)step).resolve(json);
+			if (json == NOTHING)
+				break;
+		}
+		return json;
+	}
+
+	protected boolean run(@Nullable Object node, int index, @Nonnull Visitor visitor) {
+		return index == steps.length ? visitor.visit(node) : steps[index].select(this, node, index + 1, visitor);
+	}
+
+	@Nullable
+	protected static Object lookup(@Nullable Object node, @Nonnull String name) {
+		if (!(node instanceof JSONObject))
+			return NOTHING;
+		return ((JSONObject)node).getOrDefault(name, NOTHING);
+	}
+
+	@Nullable
+	protected static Object lookup(@Nullable Object node, int index) {
+		if (!(node instanceof JSONList<?>))
+			return NOTHING;
+		JSONList<?> j = (JSONList<?>)node;
+		int size = j.size();
+		if (index < 0)
+			index += size;
+		return index >= 0 && index < size ? j.get(index) : NOTHING;
+	}
+
+	protected static int getNumberKind(@Nonnull Number n) {
+		if (n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte)
+			return LONG;
+		else if (n instanceof Double || n instanceof Float)
+			return DOUBLE;
+		else if (n instanceof BigInteger)
+			return ((BigInteger)n).bitLength() < 64 ? LONG : BIG;
+		else if (n instanceof JSONNumber.LongValue)
+			return LONG;
+		else if (n instanceof JSONNumber.DoubleValue)
+			return DOUBLE;
+		else if (n instanceof JSONNumber.Text)
+			return ((JSONNumber.Text)n).integer && ((JSONNumber.Text)n).text.length <= 18 ? LONG : BIG;
+		return BIG;
+	}
+
+	@Nonnull
+	protected static BigDecimal toBigDecimal(@Nonnull Number n) {
+		if (n instanceof BigDecimal)
+			return (BigDecimal)n;
+		else if (n instanceof BigInteger)
+			return new BigDecimal((BigInteger)n);
+		else if (n instanceof JSONNumber)
+			return ((JSONNumber)n).bigDecimalValue();
+		else if (n instanceof Double || n instanceof Float)
+			return BigDecimal.valueOf(n.doubleValue());
+		return BigDecimal.valueOf(n.longValue());
+	}
+
+	protected static int compareNumbers(@Nonnull Number a, @Nonnull Number b) {
+		int kindA = getNumberKind(a);
+		int kindB = getNumberKind(b);
+		if (kindA == LONG && kindB == LONG)
+			return Long.compare(a.longValue(), b.longValue());
+		if (kindA != BIG && kindB != BIG && (kindA == DOUBLE || Math.abs(a.longValue()) <= 1L << 53) && (kindB == DOUBLE || Math.abs(b.longValue()) <= 1L << 53)) {
+			double x = a.doubleValue();
+			double y = b.doubleValue();
+			return x < y ? -1 : (x > y ? 1 : 0);
+		}
+		return toBigDecimal(a).compareTo(toBigDecimal(b));
+	}
+
+	protected static boolean valuesEqual(@Nullable Object a, @Nullable Object b) {
+		if (a == NOTHING || b == NOTHING)
+			return a == b;
+		if (a == null || b == null)
+			return a == b;
+		if (a instanceof Number && b instanceof Number)
+			return compareNumbers((Number)a, (Number)b) == 0;
+		return a.equals(b);
+	}
+
+	protected static boolean valuesLess(@Nullable Object a, @Nullable Object b) {
+		if (a instanceof Number && b instanceof Number)
+			return compareNumbers((Number)a, (Number)b) < 0;
+		if (a instanceof String && b instanceof String)
+			return ((String)a).compareTo((String)b) < 0;
+		return false;
+	}
+
+	protected final class Extraction {
+		@Nonnull protected final JSONSource source;
+		@Nonnull protected final JSONParser parser;
+		@Nonnull protected final Visitor visitor;
+		@Nonnull protected final StringBuilder key;
+		@Nonnull protected int[][] counts = new int[16][];
+		@Nonnull protected int[][] filters = new int[16][];
+
+		protected Extraction(@Nonnull JSONSource source, @Nonnull JSONParser parser, @Nonnull Visitor visitor, @Nonnull StringBuilder key) {
+			this.source = source;
+			this.parser = parser;
+			this.visitor = visitor;
+			this.key = key;
+		}
+
+		protected void prepare(int depth) {
+			if (depth == counts.length) {
+				counts = Arrays.copyOf(counts, depth * 2);
+				filters = Arrays.copyOf(filters, depth * 2);
+			}
+			if (counts[depth] == null) {
+				counts[depth] = new int[steps.length + 1];
+				filters[depth] = new int[steps.length];
+			}
+		}
+
+		protected void value(int depth) {
+			int[] active = counts[depth];
+			int c = source.peekSignificant();
+			boolean any = false;
+			boolean needsSize = false;
+			for (int i = 0; i < steps.length; i++) {
+				if (active[i] != 0) {
+					any = true;
+					if (sized[i])
+						needsSize = true;
+				}
+			}
+			if (active[steps.length] != 0 || (c == '[' && needsSize))
+				walk(parser.readValue(source), depth);
+			else if (!any || (c != '{' && c != '['))
+				source.skipValue();
+			else if (c == '{')
+				object(depth);
+			else
+				list(depth);
+		}
+
+		protected void object(int depth) {
+			prepare(depth + 1);
+			source.read();
+			int c = source.peekSignificant();
+			if (c == '}') {
+				source.read();
+				return;
+			}
+			while (true) {
+				if (c != '"' && c != '\'')
+					throw source.unexpected(c, "key token");
+				key.setLength(0);
+				source.readString(key);
+				source.expect(':', "Colon");
+				match(depth, key, -1, -1);
+				child(depth + 1);
+
+				c = source.peekSignificant();
+				if (c == ',') {
+					source.read();
+					c = source.peekSignificant();
+				} else if (c == '}') {
+					source.read();
+					return;
+				} else {
+					throw source.unexpected(c, "Comma or ObjectEnd");
+				}
+			}
+		}
+
+		protected void list(int depth) {
+			prepare(depth + 1);
+			source.read();
+			int c = source.peekSignificant();
+			if (c == ']') {
+				source.read();
+				return;
+			}
+			for (int index = 0; ; index++) {
+				match(depth, null, index, -1);
+				child(depth + 1);
+
+				c = source.peekSignificant();
+				if (c == ',') {
+					source.read();
+				} else if (c == ']') {
+					source.read();
+					return;
+				} else {
+					throw source.unexpected(c, "Comma or ListEnd");
+				}
+			}
+		}
+
+		protected void child(int depth) {
+			int[] filter = filters[depth];
+			boolean any = false;
+			for (int count : filter) {
+				if (count != 0)
+					any = true;
+			}
+			if (!any) {
+				value(depth);
+				return;
+			}
+			Object value = parser.readValue(source);
+			filter(value, depth);
+			walk(value, depth);
+		}
+
+		protected void filter(@Nullable Object value, int depth) {
+			int[] filter = filters[depth];
+			int[] active = counts[depth];
+			for (int i = 0; i < filter.length; i++) {
+				int count = filter[i];
+				if (count == 0)
+					continue;
+				Step step = steps[i];
+				if (step instanceof DescendantStep)
+					step = ((DescendantStep)step).selector;
+				if (step instanceof FilterStep) {
+					if (((FilterStep)step).expression.test(visitor.root, value))
+						active[i + 1] += count;
+				} else if (step instanceof UnionStep) {
+					for (Step selector : ((UnionStep)step).selectors) {
+						if (selector instanceof FilterStep && ((FilterStep)selector).expression.test(visitor.root, value))
+							active[i + 1] += count;
+					}
+				}
+			}
+		}
+
+		protected void walk(@Nullable Object value, int depth) {
+			int[] active = counts[depth];
+			for (int i = 0; i < active[steps.length]; i++)
+				visitor.visit(value);
+			boolean any = false;
+			for (int i = 0; i < steps.length; i++) {
+				if (active[i] != 0)
+					any = true;
+			}
+			if (!any)
+				return;
+			if (value instanceof JSONObject) {
+				prepare(depth + 1);
+				for (Map.Entry<String, Object> entry : ((JSONObject)value).entrySet()) {
+					match(depth, entry.getKey(), -1, -1);
+					filter(entry.getValue(), depth + 1);
+					walk(entry.getValue(), depth + 1);
+				}
+			} else if (value instanceof JSONList<?>) {
+				prepare(depth + 1);
+				JSONList<?> j = (JSONList<?>)value;
+				int size = j.size();
+				for (int index = 0; index < size; index++) {
+					Object child = j.get(index);
+					match(depth, null, index, size);
+					filter(child, depth + 1);
+					walk(child, depth + 1);
+				}
+			}
+		}
+
+		protected void match(int depth, @Nullable CharSequence key, int index, int size) {
+			int[] active = counts[depth];
+			int[] child = counts[depth + 1];
+			int[] filter = filters[depth + 1];
+			Arrays.fill(child, 0);
+			Arrays.fill(filter, 0);
+			for (int i = 0; i < steps.length; i++) {
+				int count = active[i];
+				if (count == 0)
+					continue;
+				Step step = steps[i];
+				if (step instanceof DescendantStep) {
+					child[i] += count;
+					step = ((DescendantStep)step).selector;
+				}
+				if (step instanceof UnionStep) {
+					boolean filtered = false;
+					for (Step selector : ((UnionStep)step).selectors) {
+						if (selector instanceof FilterStep)
+							filtered = true;
+						else
+							matchSelector(selector, i, count, key, index, size, child, filter);
+					}
+					if (filtered)
+						filter[i] += count;
+				} else {
+					matchSelector(step, i, count, key, index, size, child, filter);
+				}
+			}
+		}
+
+		protected void matchSelector(@Nonnull Step selector, int position, int count, @Nullable CharSequence key, int index, int size, @Nonnull int[] child, @Nonnull int[] filter) {
+			if (selector instanceof FilterStep) {
+				filter[position] += count;
+				return;
+			}
+			boolean matches;
+			if (selector instanceof NameStep)
+				matches = key != null && ((NameStep)selector).name.contentEquals(key);
+			else if (selector instanceof IndexStep)
+				matches = key == null && ((IndexStep)selector).contains(index, size);
+			else if (selector instanceof SliceStep)
+				matches = key == null && ((SliceStep)selector).contains(index, size);
+			else
+				matches = true;
+			if (matches)
+				child[position + 1] += count;
+		}
+	}
+
+	protected abstract static class Visitor {
+		@Nullable protected final Object root;
+
+		protected Visitor(@Nullable Object root) {
+			this.root = root;
+		}
+
+		protected abstract boolean visit(@Nullable Object value);
+	}
+
+	protected static final class Collector extends Visitor {
+		@Nonnull protected final List<Object> results = new ArrayList<>();
+
+		protected Collector(@Nullable Object root) {
+			super(root);
+		}
+
+		@Override
+		protected boolean visit(@Nullable Object value) {
+			results.add(value);
+			return true;
+		}
+	}
+
+	protected static final class ActionVisitor extends Visitor {
+		@Nonnull protected final Action1<Object> f;
+
+		protected ActionVisitor(@Nullable Object root, @Nonnull Action1<Object> f) {
+			super(root);
+			this.f = f;
+		}
+
+		@Override
+		protected boolean visit(@Nullable Object value) {
+			f.call(value);
+			return true;
+		}
+	}
+
+	protected static final class FirstVisitor extends Visitor {
+		@Nullable protected Object value = NOTHING;
+
+		protected FirstVisitor(@Nullable Object root) {
+			super(root);
+		}
+
+		@Override
+		protected boolean visit(@Nullable Object value) {
+			this.value = value;
+			return false;
+		}
+	}
+
+	protected static final class Counter extends Visitor {
+		protected int count = 0;
+
+		protected Counter(@Nullable Object root) {
+			super(root);
+		}
+
+		@Override
+		protected boolean visit(@Nullable Object value) {
+			count++;
+			return true;
+		}
+	}
+
+	protected abstract static class Step {
+		protected abstract boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor);
+
+		protected boolean needsSize() {
+			return false;
+		}
+
+		protected boolean usesRoot() {
+			return false;
+		}
+
+		protected boolean selectChildren(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			if (node instanceof JSONObject) {
+				JSONObject j = (JSONObject)node;
+				if (j.hashed) {
+					for (Map.Entry<String, Object> entry : j.hashedEntrySet()) {
+						if (!selectChild(query, entry.getValue(), next, visitor))
+							return false;
+					}
+				} else {
+					for (int i = 0; i < j.size; i++) {
+						if (!selectChild(query, j.values[i], next, visitor))
+							return false;
+					}
+				}
+			} else if (node instanceof JSONList<?>) {
+				JSONList<?> j = (JSONList<?>)node;
+				for (int i = 0; i < j.size(); i++) {
+					if (!selectChild(query, j.get(i), next, visitor))
+						return false;
+				}
+			}
+			return true;
+		}
+
+		protected boolean selectChild(@Nonnull JSONQuery query, @Nullable Object child, int next, @Nonnull Visitor visitor) {
+			return query.run(child, next, visitor);
+		}
+	}
+
+	protected abstract static class SingularStep extends Step {
+		@Nullable
+		protected abstract Object resolve(@Nullable Object node);
+
+		@Override
+		protected boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			Object value = resolve(node);
+			return value == NOTHING || query.run(value, next, visitor);
+		}
+	}
+
+	protected static final class NameStep extends SingularStep {
+		@Nonnull protected final String name;
+
+		protected NameStep(@Nonnull String name) {
+			this.name = name;
+		}
+
+		@Override
+		@Nullable
+		protected Object resolve(@Nullable Object node) {
+			return lookup(node, name);
+		}
+	}
+
+	protected static final class IndexStep extends SingularStep {
+		protected final int index;
+
+		protected IndexStep(int index) {
+			this.index = index;
+		}
+
+		@Override
+		protected boolean needsSize() {
+			return index < 0;
+		}
+
+		protected boolean contains(int index, int size) {
+			return index == (this.index < 0 ? this.index + size : this.index);
+		}
+
+		@Override
+		@Nullable
+		protected Object resolve(@Nullable Object node) {
+			return lookup(node, index);
+		}
+	}
+
+	protected static final class WildcardStep extends Step {
+		@Override
+		protected boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			return selectChildren(query, node, next, visitor);
+		}
+	}
+
+	protected static final class SliceStep extends Step {
+		@Nullable protected final Integer start;
+		@Nullable protected final Integer end;
+		protected final int step;
+
+		protected SliceStep(@Nullable Integer start, @Nullable Integer end, int step) {
+			this.start = start;
+			this.end = end;
+			this.step = step;
+		}
+
+		protected static int clamp(int index, int size, int min, int max) {
+			if (index < 0)
+				index += size;
+			return Math.max(min, Math.min(max, index));
+		}
+
+		@Override
+		protected boolean needsSize() {
+			return step < 0 || (start != null && start < 0) || (end != null && end < 0);
+		}
+
+		protected boolean contains(int index, int size) {
+			if (step > 0) {
+				int lower = start == null ? 0 : (start < 0 ? Math.max(0, start + size) : start);
+				int upper = end == null ? Integer.MAX_VALUE : (end < 0 ? end + size : end);
+				return index >= lower && index < upper && (index - lower) % step == 0;
+			}
+			if (step == 0 || size < 0)
+				return false;
+			int upper = start == null ? size - 1 : clamp(start, size, -1, size - 1);
+			int lower = end == null ? -1 : clamp(end, size, -1, size - 1);
+			return index <= upper && index > lower && (upper - index) % step == 0;
+		}
+
+		@Override
+		protected boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			if (!(node instanceof JSONList<?>) || step == 0)
+				return true;
+			JSONList<?> j = (JSONList<?>)node;
+			int size = j.size();
+			if (step > 0) {
+				int lower = start == null ? 0 : clamp(start, size, 0, size);
+				int upper = end == null ? size : clamp(end, size, 0, size);
+				for (long i = lower; i < upper; i += step) {
+					if (!query.run(j.get((int)i), next, visitor))
+						return false;
+				}
+			} else {
+				int upper = start == null ? size - 1 : clamp(start, size, -1, size - 1);
+				int lower = end == null ? -1 : clamp(end, size, -1, size - 1);
+				for (long i = upper; i > lower; i += step) {
+					if (!query.run(j.get((int)i), next, visitor))
+						return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	protected static final class FilterStep extends Step {
+		@Nonnull protected final Expression expression;
+
+		protected FilterStep(@Nonnull Expression expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			return expression.usesRoot();
+		}
+
+		@Override
+		protected boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			return selectChildren(query, node, next, visitor);
+		}
+
+		@Override
+		protected boolean selectChild(@Nonnull JSONQuery query, @Nullable Object child, int next, @Nonnull Visitor visitor) {
+			return !expression.test(visitor.root, child) || query.run(child, next, visitor);
+		}
+	}
+
+	protected static final class UnionStep extends Step {
+		@Nonnull protected final Step[] selectors;
+
+		protected UnionStep(@Nonnull Step[] selectors) {
+			this.selectors = selectors;
+		}
+
+		@Override
+		protected boolean needsSize() {
+			for (Step selector : selectors) {
+				if (selector.needsSize())
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			for (Step selector : selectors) {
+				if (selector.usesRoot())
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		protected boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			for (Step selector : selectors) {
+				if (!selector.select(query, node, next, visitor))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	protected static final class DescendantStep extends Step {
+		@Nonnull protected final Step selector;
+
+		protected DescendantStep(@Nonnull Step selector) {
+			this.selector = selector;
+		}
+
+		@Override
+		protected boolean needsSize() {
+			return selector.needsSize();
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			return selector.usesRoot();
+		}
+
+		@Override
+		protected boolean select(@Nonnull JSONQuery query, @Nullable Object node, int next, @Nonnull Visitor visitor) {
+			return selector.select(query, node, next, visitor) && selectChildren(query, node, next, visitor);
+		}
+
+		@Override
+		protected boolean selectChild(@Nonnull JSONQuery query, @Nullable Object child, int next, @Nonnull Visitor visitor) {
+			return !(child instanceof JSONObject || child instanceof JSONList<?>) || select(query, child, next, visitor);
+		}
+	}
+
+	protected abstract static class Expression {
+		protected abstract boolean test(@Nullable Object root, @Nullable Object current);
+
+		protected boolean usesRoot() {
+			return false;
+		}
+	}
+
+	protected static final class OrExpression extends Expression {
+		@Nonnull protected final Expression[] operands;
+
+		protected OrExpression(@Nonnull Expression[] operands) {
+			this.operands = operands;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			for (Expression operand : operands) {
+				if (operand.usesRoot())
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		protected boolean test(@Nullable Object root, @Nullable Object current) {
+			for (Expression operand : operands) {
+				if (operand.test(root, current))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	protected static final class AndExpression extends Expression {
+		@Nonnull protected final Expression[] operands;
+
+		protected AndExpression(@Nonnull Expression[] operands) {
+			this.operands = operands;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			for (Expression operand : operands) {
+				if (operand.usesRoot())
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		protected boolean test(@Nullable Object root, @Nullable Object current) {
+			for (Expression operand : operands) {
+				if (!operand.test(root, current))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	protected static final class NotExpression extends Expression {
+		@Nonnull protected final Expression operand;
+
+		protected NotExpression(@Nonnull Expression operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			return operand.usesRoot();
+		}
+
+		@Override
+		protected boolean test(@Nullable Object root, @Nullable Object current) {
+			return !operand.test(root, current);
+		}
+	}
+
+	protected static final class ExistsExpression extends Expression {
+		@Nonnull protected final Operand operand;
+
+		protected ExistsExpression(@Nonnull Operand operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			return operand.usesRoot();
+		}
+
+		@Override
+		protected boolean test(@Nullable Object root, @Nullable Object current) {
+			return operand.value(root, current) != NOTHING;
+		}
+	}
+
+	protected static final class CompareExpression extends Expression {
+		protected final int operator;
+		@Nonnull protected final Operand left;
+		@Nonnull protected final Operand right;
+
+		protected CompareExpression(int operator, @Nonnull Operand left, @Nonnull Operand right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			return left.usesRoot() || right.usesRoot();
+		}
+
+		@Override
+		protected boolean test(@Nullable Object root, @Nullable Object current) {
+			Object a = left.value(root, current);
+			Object b = right.value(root, current);
+			switch (operator) {
+				case EQUAL:
+					return valuesEqual(a, b);
+				case NOT_EQUAL:
+					return !valuesEqual(a, b);
+				case LESS:
+					return valuesLess(a, b);
+				case LESS_OR_EQUAL:
+					return valuesLess(a, b) || valuesEqual(a, b);
+				case GREATER:
+					return valuesLess(b, a);
+				case GREATER_OR_EQUAL:
+					return valuesLess(b, a) || valuesEqual(a, b);
+				default:
+					throw new IllegalStateException();
+			}
+		}
+	}
+
+	protected abstract static class Operand {
+		@Nullable
+		protected abstract Object value(@Nullable Object root, @Nullable Object current);
+
+		protected boolean usesRoot() {
+			return false;
+		}
+	}
+
+	protected static final class LiteralOperand extends Operand {
+		@Nullable protected final Object value;
+
+		protected LiteralOperand(@Nullable Object value) {
+			this.value = value;
+		}
+
+		@Override
+		@Nullable
+		protected Object value(@Nullable Object root, @Nullable Object current) {
+			return value;
+		}
+	}
+
+	protected static final class PathOperand extends Operand {
+		@Nonnull protected final JSONQuery query;
+		protected final boolean relative;
+
+		protected PathOperand(@Nonnull JSONQuery query, boolean relative) {
+			this.query = query;
+			this.relative = relative;
+		}
+
+		@Override
+		protected boolean usesRoot() {
+			return !relative || query.usesRoot();
+		}
+
+		@Override
+		@Nullable
+		protected Object value(@Nullable Object root, @Nullable Object current) {
+			return query.find(root, relative ? current : root);
+		}
+	}
+
+	protected static final class Parser {
+		@Nonnull protected final String text;
+		protected int position = 0;
+
+		protected Parser(@Nonnull String text) {
+			this.text = text;
+		}
+
+		@Nonnull
+		protected IllegalArgumentException error() {
+			return new IllegalArgumentException(String.format("Invalid query '%s' at position %d", text, position));
+		}
+
+		protected boolean atEnd() {
+			return position >= text.length();
+		}
+
+		protected char peek() {
+			return position < text.length() ? text.charAt(position) : '\0';
+		}
+
+		protected boolean consume(char c) {
+			if (peek() != c || atEnd())
+				return false;
+			position++;
+			return true;
+		}
+
+		protected boolean consume(@Nonnull String s) {
+			if (!text.startsWith(s, position))
+				return false;
+			position += s.length();
+			return true;
+		}
+
+		protected void expect(char c) {
+			if (!consume(c))
+				throw error();
+		}
+
+		protected void skipWhitespace() {
+			while (!atEnd()) {
+				char c = peek();
+				if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+					break;
+				position++;
+			}
+		}
+
+		protected static boolean isNameChar(char c) {
+			switch (c) {
+				case '.': case '[': case ']': case '(': case ')': case '=': case '!': case '<': case '>':
+				case '&': case '|': case ',': case ' ': case '\t': case '\n': case '\r': case '\'': case '"':
+					return false;
+				default:
+					return true;
+			}
+		}
+
+		@Nonnull
+		protected JSONQuery parseQuery() {
+			List<Step> steps = new ArrayList<>();
+			if (!consume('$') && !consume('@')) {
+				char c = peek();
+				if (!atEnd() && c != '.' && c != '[')
+					steps.add(parseNameSelector());
+			}
+			parseSegments(steps);
+			if (!atEnd())
+				throw error();
+			return new JSONQuery(text, steps.toArray(new Step[0]));
+		}
+
+		protected void parseSegments(@Nonnull List<Step> steps) {
+			while (!atEnd()) {
+				if (consume("..")) {
+					if (peek() == '[')
+						steps.add(new DescendantStep(parseBracket()));
+					else
+						steps.add(new DescendantStep(parseNameSelector()));
+				} else if (consume('.')) {
+					steps.add(parseNameSelector());
+				} else if (peek() == '[') {
+					steps.add(parseBracket());
+				} else {
+					break;
+				}
+			}
+		}
+
+		@Nonnull
+		protected Step parseNameSelector() {
+			if (consume('*'))
+				return new WildcardStep();
+			int start = position;
+			while (!atEnd() && isNameChar(peek()))
+				position++;
+			if (start == position)
+				throw error();
+			return new NameStep(text.substring(start, position));
+		}
+
+		@Nonnull
+		protected Step parseBracket() {
+			expect('[');
+			List<Step> selectors = new ArrayList<>();
+			do {
+				skipWhitespace();
+				selectors.add(parseSelector());
+				skipWhitespace();
+			} while (consume(','));
+			expect(']');
+			return selectors.size() == 1 ? selectors.get(0) : new UnionStep(selectors.toArray(new Step[0]));
+		}
+
+		@Nonnull
+		protected Step parseSelector() {
+			char c = peek();
+			if (c == '\'' || c == '"')
+				return new NameStep(parseString());
+			if (consume('*'))
+				return new WildcardStep();
+			if (consume('?')) {
+				skipWhitespace();
+				return new FilterStep(parseOr());
+			}
+			Integer start = parseOptionalInt();
+			skipWhitespace();
+			if (!consume(':')) {
+				if (start == null)
+					throw error();
+				return new IndexStep(start);
+			}
+			skipWhitespace();
+			Integer end = parseOptionalInt();
+			skipWhitespace();
+			int step = 1;
+			if (consume(':')) {
+				skipWhitespace();
+				Integer value = parseOptionalInt();
+				if (value != null)
+					step = value;
+			}
+			return new SliceStep(start, end, step);
+		}
+
+		@Nullable
+		protected Integer parseOptionalInt() {
+			int start = position;
+			consume('-');
+			while (!atEnd() && peek() >= '0' && peek() <= '9')
+				position++;
+			if (position == start)
+				return null;
+			try {
+				return Integer.parseInt(text.substring(start, position));
+			} catch (NumberFormatException e) {
+				position = start;
+				throw error();
+			}
+		}
+
+		@Nonnull
+		protected String parseString() {
+			char quote = text.charAt(position++);
+			StringBuilder sb = new StringBuilder();
+			while (true) {
+				if (atEnd())
+					throw error();
+				char c = text.charAt(position++);
+				if (c == quote)
+					return sb.toString();
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				if (atEnd())
+					throw error();
+				c = text.charAt(position++);
+				switch (c) {
+					case 'b':
+						sb.append('\b');
+						break;
+					case 'f':
+						sb.append('\f');
+						break;
+					case 'n':
+						sb.append('\n');
+						break;
+					case 'r':
+						sb.append('\r');
+						break;
+					case 't':
+						sb.append('\t');
+						break;
+					case 'u':
+						if (position + 4 > text.length())
+							throw error();
+						try {
+							sb.append((char)Integer.parseInt(text.substring(position, position + 4), 16));
+						} catch (NumberFormatException e) {
+							throw error();
+						}
+						position += 4;
+						break;
+					default:
+						sb.append(c);
+						break;
+				}
+			}
+		}
+
+		@Nonnull
+		protected Expression parseOr() {
+			List<Expression> operands = new ArrayList<>();
+			do {
+				operands.add(parseAnd());
+				skipWhitespace();
+			} while (consume("||"));
+			return operands.size() == 1 ? operands.get(0) : new OrExpression(operands.toArray(new Expression[0]));
+		}
+
+		@Nonnull
+		protected Expression parseAnd() {
+			List<Expression> operands = new ArrayList<>();
+			do {
+				operands.add(parseUnary());
+				skipWhitespace();
+			} while (consume("&&"));
+			return operands.size() == 1 ? operands.get(0) : new AndExpression(operands.toArray(new Expression[0]));
+		}
+
+		@Nonnull
+		protected Expression parseUnary() {
+			skipWhitespace();
+			if (peek() == '!' && !text.startsWith("!=", position)) {
+				position++;
+				return new NotExpression(parseUnary());
+			}
+			if (consume('(')) {
+				Expression expression = parseOr();
+				skipWhitespace();
+				expect(')');
+				return expression;
+			}
+			Operand left = parseOperand();
+			skipWhitespace();
+			int operator = parseOperator();
+			if (operator == -1) {
+				if (!(left instanceof PathOperand))
+					throw error();
+				return new ExistsExpression(left);
+			}
+			skipWhitespace();
+			return new CompareExpression(operator, left, parseOperand());
+		}
+
+		protected int parseOperator() {
+			if (consume("=="))
+				return EQUAL;
+			else if (consume("!="))
+				return NOT_EQUAL;
+			else if (consume("<="))
+				return LESS_OR_EQUAL;
+			else if (consume(">="))
+				return GREATER_OR_EQUAL;
+			else if (consume('<'))
+				return LESS;
+			else if (consume('>'))
+				return GREATER;
+			return -1;
+		}
+
+		@Nonnull
+		protected Operand parseOperand() {
+			int start = position;
+			char c = peek();
+			if (c == '@' || c == '$') {
+				position++;
+				List<Step> steps = new ArrayList<>();
+				parseSegments(steps);
+				return new PathOperand(new JSONQuery(text.substring(start, position), steps.toArray(new Step[0])), c == '@');
+			}
+			if (c == '\'' || c == '"')
+				return new LiteralOperand(parseString());
+			if (consume("true"))
+				return new LiteralOperand(Boolean.TRUE);
+			if (consume("false"))
+				return new LiteralOperand(Boolean.FALSE);
+			if (consume("null"))
+				return new LiteralOperand(null);
+			consume('-');
+			while (!atEnd() && "0123456789.eE+-".indexOf(peek()) != -1)
+				position++;
+			if (position == start)
+				throw error();
+			return new LiteralOperand(parseNumber(start, text.substring(start, position)));
+		}
+
+		@Nonnull
+		protected Number parseNumber(int start, @Nonnull String s) {
+			try {
+				BigDecimal decimal = new BigDecimal(s);
+				try {
+					return decimal.longValueExact();
+				} catch (ArithmeticException e) {
+				}
+				double value = decimal.doubleValue();
+				if (!Double.isInfinite(value) && BigDecimal.valueOf(value).compareTo(decimal) == 0)
+					return value;
+				return decimal;
+			} catch (NumberFormatException e) {
+				position = start;
+				throw error();
+			}
+		}
+	}
+}
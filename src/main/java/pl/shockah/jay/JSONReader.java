@@ -0,0 +1,429 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class JSONReader implements Closeable {
+	protected static final int DOCUMENT = 0;
+	protected static final int EMPTY_OBJECT = 1;
+	protected static final int OBJECT = 2;
+	protected static final int DANGLING_NAME = 3;
+	protected static final int EMPTY_LIST = 4;
+	protected static final int LIST = 5;
+
+	@Nonnull public final JSONSource source;
+	@Nonnull public final JSONParser parser;
+
+	@Nonnull protected int[] stack = new int[32];
+	protected int depth = 1;
+	@Nullable protected JSONToken peeked;
+	@Nullable protected JSONSource.Literal peekedLiteral;
+	@Nullable protected JSONToken current;
+	@Nonnull protected final StringBuilder sb = new StringBuilder();
+	@Nonnull protected char[] literal = new char[32];
+	protected int literalLength = 0;
+
+	public JSONReader(@Nonnull Reader reader) {
+		this(new JSONReaderSource(reader));
+	}
+
+	public JSONReader(@Nonnull String json) {
+		this(new JSONStringSource(json));
+	}
+
+	public JSONReader(@Nonnull JSONSource source) {
+		this(source, new JSONParser());
+	}
+
+	public JSONReader(@Nonnull JSONSource source, @Nonnull JSONParser parser) {
+		this.source = source;
+		this.parser = parser;
+		stack[0] = DOCUMENT;
+	}
+
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+
+	public int getDepth() {
+		return depth - 1;
+	}
+
+	@Nonnull
+	public JSONToken peek() {
+		if (peeked == null)
+			peeked = readPeeked();
+		return peeked;
+	}
+
+	public boolean hasNext() {
+		JSONToken token = peek();
+		return token != JSONToken.ObjectEnd && token != JSONToken.ListEnd && token != JSONToken.End;
+	}
+
+	@Nonnull
+	protected JSONToken readPeeked() {
+		int c = source.peekSignificant();
+		switch (stack[depth - 1]) {
+			case EMPTY_OBJECT:
+				if (c == '}')
+					return JSONToken.ObjectEnd;
+				return peekName(c);
+			case OBJECT:
+				if (c == '}')
+					return JSONToken.ObjectEnd;
+				if (c != ',')
+					throw source.unexpected(c, "Comma or ObjectEnd");
+				source.read();
+				return peekName(source.peekSignificant());
+			case DANGLING_NAME:
+				if (c != ':')
+					throw source.unexpected(c, "Colon");
+				source.read();
+				return peekValue(source.peekSignificant());
+			case EMPTY_LIST:
+				if (c == ']')
+					return JSONToken.ListEnd;
+				return peekValue(c);
+			case LIST:
+				if (c == ']')
+					return JSONToken.ListEnd;
+				if (c != ',')
+					throw source.unexpected(c, "Comma or ListEnd");
+				source.read();
+				return peekValue(source.peekSignificant());
+			default:
+				if (c == JSONSource.EOF)
+					return JSONToken.End;
+				return peekValue(c);
+		}
+	}
+
+	@Nonnull
+	protected JSONToken peekName(int c) {
+		if (c != '"' && c != '\'')
+			throw source.unexpected(c, "key token");
+		return JSONToken.Name;
+	}
+
+	@Nonnull
+	protected JSONToken peekValue(int c) {
+		switch (c) {
+			case '{':
+				return JSONToken.ObjectBegin;
+			case '[':
+				return JSONToken.ListBegin;
+			case '"':
+			case '\'':
+				return JSONToken.String;
+			default:
+				if (!JSONSource.isLiteralCharacter(c))
+					throw source.unexpected(c, "value token");
+				peekedLiteral = source.readLiteral();
+				switch (peekedLiteral) {
+					case Null:
+						return JSONToken.Null;
+					case True:
+					case False:
+						return JSONToken.Bool;
+					case Integer:
+						return JSONToken.Integer;
+					default:
+						return JSONToken.Decimal;
+				}
+		}
+	}
+
+	protected void push(int state) {
+		if (depth == stack.length)
+			stack = Arrays.copyOf(stack, depth * 2);
+		stack[depth++] = state;
+	}
+
+	protected void valueConsumed() {
+		int state = stack[depth - 1];
+		if (state == DANGLING_NAME)
+			stack[depth - 1] = OBJECT;
+		else if (state == EMPTY_LIST)
+			stack[depth - 1] = LIST;
+	}
+
+	@Nonnull
+	public JSONToken nextToken() {
+		JSONToken token = peek();
+		sb.setLength(0);
+		switch (token) {
+			case ObjectBegin:
+				source.read();
+				valueConsumed();
+				push(EMPTY_OBJECT);
+				break;
+			case ListBegin:
+				source.read();
+				valueConsumed();
+				push(EMPTY_LIST);
+				break;
+			case ObjectEnd:
+			case ListEnd:
+				source.read();
+				depth--;
+				break;
+			case Name:
+				source.readString(sb);
+				stack[depth - 1] = DANGLING_NAME;
+				break;
+			case String:
+				source.readString(sb);
+				valueConsumed();
+				break;
+			case End:
+				break;
+			default:
+				if (literal.length < source.literalLength)
+					literal = new char[source.literal.length];
+				System.arraycopy(source.literal, 0, literal, 0, source.literalLength);
+				literalLength = source.literalLength;
+				valueConsumed();
+				break;
+		}
+		peeked = null;
+		current = token;
+		return token;
+	}
+
+	@Nonnull
+	protected JSONParseException unexpected(@Nullable JSONToken token, @Nonnull String expected) {
+		return new JSONParseException(String.format("Invalid token %s at position %d; expected %s", token, source.getPosition(), expected));
+	}
+
+	protected void nextToken(@Nonnull JSONToken expected) {
+		JSONToken token = peek();
+		if (token != expected)
+			throw unexpected(token, expected.name());
+		nextToken();
+	}
+
+	public void beginObject() {
+		nextToken(JSONToken.ObjectBegin);
+	}
+
+	public void endObject() {
+		nextToken(JSONToken.ObjectEnd);
+	}
+
+	public void beginList() {
+		nextToken(JSONToken.ListBegin);
+	}
+
+	public void endList() {
+		nextToken(JSONToken.ListEnd);
+	}
+
+	@Nonnull
+	public String nextName() {
+		nextToken(JSONToken.Name);
+		return sb.toString();
+	}
+
+	@Nonnull
+	public String nextString() {
+		nextToken(JSONToken.String);
+		return sb.toString();
+	}
+
+	public boolean nextBool() {
+		nextToken(JSONToken.Bool);
+		return getBool();
+	}
+
+	public void nextNull() {
+		nextToken(JSONToken.Null);
+	}
+
+	@Nonnull
+	public BigInteger nextBigInt() {
+		nextToken(JSONToken.Integer);
+		return getBigInt();
+	}
+
+	public int nextInt() {
+		nextToken(JSONToken.Integer);
+		return getInt();
+	}
+
+	public long nextLong() {
+		nextToken(JSONToken.Integer);
+		return getLong();
+	}
+
+	@Nonnull
+	public BigDecimal nextBigDecimal() {
+		JSONToken token = peek();
+		if (token != JSONToken.Integer && token != JSONToken.Decimal)
+			throw unexpected(token, "Decimal");
+		nextToken();
+		return getBigDecimal();
+	}
+
+	public double nextDouble() {
+		JSONToken token = peek();
+		if (token != JSONToken.Integer && token != JSONToken.Decimal)
+			throw unexpected(token, "Decimal");
+		nextToken();
+		return getDouble();
+	}
+
+	@Nonnull
+	public JSONObject nextObject() {
+		JSONToken token = peek();
+		if (token != JSONToken.ObjectBegin)
+			throw unexpected(token, "ObjectBegin");
+		JSONObject j = parser.readObject(source);
+		peeked = null;
+		current = null;
+		valueConsumed();
+		return j;
+	}
+
+	@Nonnull
+	public JSONList<Object> nextList() {
+		JSONToken token = peek();
+		if (token != JSONToken.ListBegin)
+			throw unexpected(token, "ListBegin");
+		JSONList<Object> j = parser.readList(source);
+		peeked = null;
+		current = null;
+		valueConsumed();
+		return j;
+	}
+
+	@Nullable
+	public Object nextValue() {
+		JSONToken token = peek();
+		switch (token) {
+			case ObjectBegin:
+				return nextObject();
+			case ListBegin:
+				return nextList();
+			case String:
+				return nextString();
+			case Integer:
+			case Decimal:
+			case Bool:
+			case Null:
+				Object value = parser.getLiteralValue(source, peekedLiteral);
+				peeked = null;
+				current = null;
+				valueConsumed();
+				return value;
+			default:
+				throw unexpected(token, "value token");
+		}
+	}
+
+	@Nullable
+	public Object nextValue(@Nullable JSONProjection projection) {
+		JSONToken token = peek();
+		if (projection == null || (token != JSONToken.ObjectBegin && token != JSONToken.ListBegin))
+			return nextValue();
+		Object value = parser.readValue(source, projection);
+		peeked = null;
+		current = null;
+		valueConsumed();
+		return value;
+	}
+
+	public void skipValue() {
+		JSONToken token = peek();
+		switch (token) {
+			case Name:
+				source.skipString();
+				stack[depth - 1] = DANGLING_NAME;
+				peeked = null;
+				skipValue();
+				return;
+			case ObjectBegin:
+			case ListBegin:
+				source.skipValue();
+				break;
+			case String:
+				source.skipString();
+				break;
+			case ObjectEnd:
+			case ListEnd:
+			case End:
+				throw unexpected(token, "value token");
+			default:
+				break;
+		}
+		peeked = null;
+		current = null;
+		valueConsumed();
+	}
+
+	@Nullable
+	public JSONToken getToken() {
+		return current;
+	}
+
+	protected void checkCurrent(@Nonnull JSONToken expected) {
+		if (current != expected)
+			throw unexpected(current, expected.name());
+	}
+
+	@Nonnull
+	public CharSequence getCharSequence() {
+		if (current != JSONToken.Name && current != JSONToken.String)
+			throw unexpected(current, "Name or String");
+		return sb;
+	}
+
+	@Nonnull
+	public String getString() {
+		return getCharSequence().toString();
+	}
+
+	public boolean getBool() {
+		checkCurrent(JSONToken.Bool);
+		return literal[0] == 't';
+	}
+
+	@Nonnull
+	public BigInteger getBigInt() {
+		checkCurrent(JSONToken.Integer);
+		if (literalLength <= 18)
+			return BigInteger.valueOf(JSONSource.parseSmallLong(literal, literalLength));
+		return new BigInteger(new String(literal, 0, literalLength));
+	}
+
+	public int getInt() {
+		return Math.toIntExact(getLong());
+	}
+
+	public long getLong() {
+		checkCurrent(JSONToken.Integer);
+		if (literalLength <= 18)
+			return JSONSource.parseSmallLong(literal, literalLength);
+		return new BigInteger(new String(literal, 0, literalLength)).longValueExact();
+	}
+
+	@Nonnull
+	public BigDecimal getBigDecimal() {
+		if (current != JSONToken.Integer && current != JSONToken.Decimal)
+			throw unexpected(current, "Decimal");
+		return new BigDecimal(literal, 0, literalLength);
+	}
+
+	public double getDouble() {
+		if (current != JSONToken.Integer && current != JSONToken.Decimal)
+			throw unexpected(current, "Decimal");
+		return JSONSource.parseDouble(literal, literalLength);
+	}
+}
@@ -0,0 +1,164 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+public class JSONReaderSource extends JSONSource {
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	@Nonnull protected static final JSONPool<char[]> BUFFERS = JSONPool.ofChars(DEFAULT_BUFFER_SIZE);
+
+	@Nonnull public final Reader reader;
+	@Nonnull protected char[] buffer;
+	protected int position = 0;
+	protected int limit = 0;
+	protected long offset = 0;
+	protected boolean finished = false;
+
+	public JSONReaderSource(@Nonnull Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	public JSONReaderSource(@Nonnull Reader reader, int bufferSize) {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException();
+		this.reader = reader;
+		this.buffer = bufferSize == DEFAULT_BUFFER_SIZE ? BUFFERS.acquire() : new char[bufferSize];
+	}
+
+	protected boolean fill() {
+		if (position < limit)
+			return true;
+		if (finished)
+			return false;
+		offset += limit;
+		position = 0;
+		limit = 0;
+		try {
+			int read;
+			do {
+				read = reader.read(buffer, 0, buffer.length);
+			} while (read == 0);
+			if (read == -1) {
+				finished = true;
+				return false;
+			}
+			limit = read;
+			return true;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public int peek() {
+		return position < limit || fill() ? buffer[position] : EOF;
+	}
+
+	@Override
+	public int read() {
+		return position < limit || fill() ? buffer[position++] : EOF;
+	}
+
+	@Override
+	public long getPosition() {
+		return offset + position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		} finally {
+			super.close();
+		}
+	}
+
+	@Override
+	protected void releaseBuffers() {
+		if (!released && buffer.length == DEFAULT_BUFFER_SIZE)
+			BUFFERS.release(buffer);
+		super.releaseBuffers();
+		buffer = null;
+	}
+
+	@Override
+	public int peekSignificant() {
+		while (position < limit || fill()) {
+			char c = buffer[position];
+			if (c == '/') {
+				position++;
+				skipComment();
+			} else if (isWhitespace(c)) {
+				position++;
+			} else {
+				return c;
+			}
+		}
+		return EOF;
+	}
+
+	@Override
+	protected void readStringRun(@Nonnull StringBuilder sb, int quote) {
+		while (position < limit || fill()) {
+			int start = position;
+			while (position < limit) {
+				char c = buffer[position];
+				if (c == quote || c == '\\') {
+					sb.append(buffer, start, position - start);
+					return;
+				}
+				position++;
+			}
+			sb.append(buffer, start, position - start);
+		}
+	}
+
+	@Override
+	public void skipString() {
+		long start = getPosition();
+		int quote = read();
+		while (position < limit || fill()) {
+			char c = buffer[position++];
+			if (c == quote)
+				return;
+			if (c == '\\' && (position < limit || fill()))
+				position++;
+		}
+		throw unterminatedString(start);
+	}
+
+	@Override
+	protected void skipContainer() {
+		int depth = 0;
+		while (position < limit || fill()) {
+			switch (buffer[position]) {
+				case '{':
+				case '[':
+					position++;
+					depth++;
+					break;
+				case '}':
+				case ']':
+					position++;
+					if (--depth == 0)
+						return;
+					break;
+				case '"':
+				case '\'':
+					skipString();
+					break;
+				case '/':
+					position++;
+					skipComment();
+					break;
+				default:
+					position++;
+					break;
+			}
+		}
+		throw unexpected(EOF, "ObjectEnd or ListEnd");
+	}
+}
@@ -0,0 +1,83 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class JSONShape implements Serializable {
+	private static final long serialVersionUID = -2457781950214473385L;
+
+	public static final int MAX_TRANSITIONS = 64;
+	public static final int MAX_SHAPES = 4096;
+
+	@Nonnull protected final JSONShape root;
+	@Nonnull protected final String[] keys;
+	@Nonnull protected final int[] index;
+	@Nullable protected transient Map<String, JSONShape> transitions;
+	protected transient int count = 0;
+
+	public JSONShape() {
+		this(null, new String[0]);
+	}
+
+	protected JSONShape(@Nullable JSONShape root, @Nonnull String[] keys) {
+		this.root = root == null ? this : root;
+		this.keys = keys;
+		int capacity = Integer.highestOneBit(Math.max(keys.length, 1) * 2) * 2;
+		index = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < keys.length; i++) {
+			int slot = keys[i].hashCode() & mask;
+			while (index[slot] != 0)
+				slot = (slot + 1) & mask;
+			index[slot] = i + 1;
+		}
+	}
+
+	public int size() {
+		return keys.length;
+	}
+
+	@Nonnull
+	public String getKey(int index) {
+		return keys[index];
+	}
+
+	public int indexOf(@Nullable Object key) {
+		if (key == null)
+			return -1;
+		int mask = index.length - 1;
+		int slot = key.hashCode() & mask;
+		while (true) {
+			int i = index[slot] - 1;
+			if (i == -1)
+				return -1;
+			String k = keys[i];
+			if (k == key || key.equals(k))
+				return i;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	@Nullable
+	public JSONShape next(@Nonnull String key) {
+		if (keys.length >= JSONObject.COMPACT_LIMIT)
+			return null;
+		if (transitions == null)
+			transitions = new HashMap<>();
+		JSONShape shape = transitions.get(key);
+		if (shape == null) {
+			if (transitions.size() >= MAX_TRANSITIONS || root.count >= MAX_SHAPES)
+				return null;
+			String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+			keys[this.keys.length] = key;
+			shape = new JSONShape(root, keys);
+			transitions.put(key, shape);
+			root.count++;
+		}
+		return shape;
+	}
+}
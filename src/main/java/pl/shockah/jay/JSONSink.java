@@ -0,0 +1,69 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+public abstract class JSONSink implements Closeable, Flushable {
+	@Nonnull
+	public static JSONSink of(@Nonnull Appendable out) {
+		if (out instanceof StringBuilder)
+			return new JSONStringSink((StringBuilder)out);
+		else if (out instanceof Writer)
+			return new JSONWriterSink((Writer)out);
+		else
+			return new JSONAppendableSink(out);
+	}
+
+	@Nonnull
+	public static JSONSink of(@Nonnull OutputStream out) {
+		return new JSONOutputStreamSink(out);
+	}
+
+	@Nullable protected char[] numberBuffer;
+
+	public abstract void append(char c);
+
+	public abstract void append(@Nonnull CharSequence s, int start, int end);
+
+	public abstract void append(@Nonnull char[] chars, int start, int end);
+
+	public void append(@Nonnull CharSequence s) {
+		append(s, 0, s.length());
+	}
+
+	public void append(@Nonnull JSONFragment fragment) {
+		char[] chars = fragment.getChars();
+		append(chars, 0, chars.length);
+	}
+
+	public void appendLong(long value) {
+		char[] buffer = getNumberBuffer();
+		append(buffer, 0, JSONNumberFormat.format(value, buffer, 0));
+	}
+
+	public void appendDouble(double value) {
+		char[] buffer = getNumberBuffer();
+		append(buffer, 0, JSONNumberFormat.format(value, buffer, 0));
+	}
+
+	@Nonnull
+	protected char[] getNumberBuffer() {
+		if (numberBuffer == null)
+			numberBuffer = new char[JSONNumberFormat.MAX_LENGTH];
+		return numberBuffer;
+	}
+
+	@Override
+	public void flush() throws IOException {
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+	}
+}
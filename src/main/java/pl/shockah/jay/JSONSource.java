@@ -0,0 +1,453 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public abstract class JSONSource implements Closeable {
+	public static final int EOF = -1;
+
+	public enum Literal {
+		Null,
+		True,
+		False,
+		Integer,
+		Decimal;
+	}
+
+	@Nonnull protected static final JSONPool<char[]> LITERALS = JSONPool.ofChars(32);
+
+	@Nonnull protected StringBuilder sb = JSONPool.STRING_BUILDERS.acquire();
+	@Nonnull protected char[] literal = LITERALS.acquire();
+	protected boolean released = false;
+	protected int literalLength = 0;
+	@Nullable protected JSONShape shapes;
+
+	public abstract int peek();
+
+	public abstract int read();
+
+	public abstract long getPosition();
+
+	@Override
+	public void close() throws IOException {
+		releaseBuffers();
+	}
+
+	protected void releaseBuffers() {
+		if (released)
+			return;
+		released = true;
+		JSONPool.STRING_BUILDERS.release(sb);
+		LITERALS.release(literal);
+		sb = null;
+		literal = null;
+	}
+
+	@Nonnull
+	public JSONShape getRootShape() {
+		if (shapes == null)
+			shapes = new JSONShape();
+		return shapes;
+	}
+
+	@Nonnull
+	public JSONParseException unexpected(int c, @Nonnull String expected) {
+		if (c == EOF)
+			return new JSONParseException(String.format("Missing token; expected %s", expected));
+		return new JSONParseException(String.format("Invalid token '%c' at position %d; expected %s", (char)c, getPosition(), expected));
+	}
+
+	protected static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || (c > 0 && Character.isWhitespace(c));
+	}
+
+	protected static boolean isLiteralCharacter(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'E';
+	}
+
+	protected static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	public int peekSignificant() {
+		while (true) {
+			int c = peek();
+			if (c == '/') {
+				read();
+				skipComment();
+			} else if (isWhitespace(c)) {
+				read();
+			} else {
+				return c;
+			}
+		}
+	}
+
+	public void expect(int expected, @Nonnull String name) {
+		int c = peekSignificant();
+		if (c != expected)
+			throw unexpected(c, name);
+		read();
+	}
+
+	protected void skipComment() {
+		long position = getPosition() - 1;
+		int c = read();
+		if (c == '/') {
+			do {
+				c = read();
+			} while (c != '\n' && c != '\r' && c != EOF);
+		} else if (c == '*') {
+			int oldc = 0;
+			while (true) {
+				c = read();
+				if (c == EOF)
+					throw new JSONParseException(String.format("Invalid JSON: reached end of input inside the comment at position %d", position));
+				if (oldc == '*' && c == '/')
+					return;
+				oldc = c;
+			}
+		} else {
+			throw new JSONParseException(String.format("Invalid token '/%c' at position %d", (char)c, position));
+		}
+	}
+
+	@Nonnull
+	public String readString() {
+		sb.setLength(0);
+		readString(sb);
+		return sb.toString();
+	}
+
+	public void readString(@Nonnull StringBuilder sb) {
+		long position = getPosition();
+		int quote = read();
+		while (true) {
+			readStringRun(sb, quote);
+			int c = read();
+			if (c == quote)
+				return;
+			else if (c == '\\')
+				readEscape(sb);
+			else
+				throw unterminatedString(position);
+		}
+	}
+
+	@Nonnull
+	protected JSONParseException unterminatedString(long position) {
+		return new JSONParseException(String.format("Invalid JSON: reached end of input inside the string at position %d", position));
+	}
+
+	protected void readStringRun(@Nonnull StringBuilder sb, int quote) {
+		while (true) {
+			int c = peek();
+			if (c == quote || c == '\\' || c == EOF)
+				return;
+			appendCharacter(sb, read());
+		}
+	}
+
+	protected void appendCharacter(@Nonnull StringBuilder sb, int c) {
+		sb.append((char)c);
+	}
+
+	protected void readEscape(@Nonnull StringBuilder sb) {
+		int c = read();
+		switch (c) {
+			case 'b':
+				sb.append('\b');
+				break;
+			case 'f':
+				sb.append('\f');
+				break;
+			case 'n':
+				sb.append('\n');
+				break;
+			case 'r':
+				sb.append('\r');
+				break;
+			case 't':
+				sb.append('\t');
+				break;
+			case 'u':
+				sb.append(readUnicodeEscape());
+				break;
+			case EOF:
+				throw new JSONParseException("Invalid JSON: reached end of input inside a string escape");
+			default:
+				appendCharacter(sb, c);
+				break;
+		}
+	}
+
+	protected char readUnicodeEscape() {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int c = read();
+			int digit = c == EOF ? -1 : Character.digit(c, 16);
+			if (digit == -1)
+				throw new JSONParseException(String.format("Invalid unicode escape at position %d", getPosition() - 1));
+			value = (value << 4) | digit;
+		}
+		return (char)value;
+	}
+
+	public void skipString() {
+		long position = getPosition();
+		int quote = read();
+		while (true) {
+			int c = read();
+			if (c == quote)
+				return;
+			if (c == '\\')
+				c = read();
+			if (c == EOF)
+				throw unterminatedString(position);
+		}
+	}
+
+	public void skipValue() {
+		int c = peekSignificant();
+		if (c == '"' || c == '\'') {
+			skipString();
+			return;
+		}
+		if (c != '{' && c != '[') {
+			if (!isLiteralCharacter(c))
+				throw unexpected(c, "value token");
+			readLiteral();
+			return;
+		}
+		skipContainer();
+	}
+
+	protected void skipContainer() {
+		int c;
+		int depth = 0;
+		do {
+			c = peekSignificant();
+			switch (c) {
+				case '{':
+				case '[':
+					read();
+					depth++;
+					break;
+				case '}':
+				case ']':
+					read();
+					depth--;
+					break;
+				case '"':
+				case '\'':
+					skipString();
+					break;
+				case EOF:
+					throw unexpected(c, "ObjectEnd or ListEnd");
+				default:
+					read();
+					break;
+			}
+		} while (depth > 0);
+	}
+
+	@Nonnull
+	public Literal readLiteral() {
+		long position = getPosition();
+		literalLength = 0;
+		while (isLiteralCharacter(peek())) {
+			if (literalLength == literal.length)
+				literal = Arrays.copyOf(literal, literalLength * 2);
+			literal[literalLength++] = (char)read();
+		}
+		Literal kind = classifyLiteral();
+		if (kind == null)
+			throw new JSONParseException(String.format("Invalid literal '%s' at position %d", getLiteral(), position));
+		return kind;
+	}
+
+	@Nonnull
+	public String getLiteral() {
+		return new String(literal, 0, literalLength);
+	}
+
+	@Nullable
+	protected Literal classifyLiteral() {
+		char[] l = literal;
+		int length = literalLength;
+		if (length == 4 && l[0] == 'n' && l[1] == 'u' && l[2] == 'l' && l[3] == 'l')
+			return Literal.Null;
+		if (length == 4 && l[0] == 't' && l[1] == 'r' && l[2] == 'u' && l[3] == 'e')
+			return Literal.True;
+		if (length == 5 && l[0] == 'f' && l[1] == 'a' && l[2] == 'l' && l[3] == 's' && l[4] == 'e')
+			return Literal.False;
+
+		int i = 0;
+		if (i < length && (l[i] == '-' || l[i] == '+'))
+			i++;
+		int digits = 0;
+		while (i < length && isDigit(l[i])) {
+			i++;
+			digits++;
+		}
+		boolean decimal = false;
+		if (i < length && l[i] == '.') {
+			decimal = true;
+			i++;
+			while (i < length && isDigit(l[i])) {
+				i++;
+				digits++;
+			}
+		}
+		if (digits == 0)
+			return null;
+		if (i < length && (l[i] == 'e' || l[i] == 'E')) {
+			decimal = true;
+			i++;
+			if (i < length && (l[i] == '-' || l[i] == '+'))
+				i++;
+			int exponentDigits = 0;
+			while (i < length && isDigit(l[i])) {
+				i++;
+				exponentDigits++;
+			}
+			if (exponentDigits == 0)
+				return null;
+		}
+		if (i != length)
+			return null;
+		return decimal ? Literal.Decimal : Literal.Integer;
+	}
+
+	@Nullable
+	public Object getLiteralValue(@Nonnull Literal kind) {
+		switch (kind) {
+			case Null:
+				return null;
+			case True:
+				return Boolean.TRUE;
+			case False:
+				return Boolean.FALSE;
+			case Integer:
+				return getLiteralBigInt();
+			case Decimal:
+				return getLiteralBigDecimal();
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+
+	@Nonnull
+	public BigInteger getLiteralBigInt() {
+		if (literalLength <= 18)
+			return BigInteger.valueOf(parseSmallLong(literal, literalLength));
+		return new BigInteger(getLiteral());
+	}
+
+	@Nonnull
+	public BigDecimal getLiteralBigDecimal() {
+		try {
+			return new BigDecimal(literal, 0, literalLength);
+		} catch (NumberFormatException e) {
+			throw new JSONParseException(String.format("Invalid literal '%s'", getLiteral()));
+		}
+	}
+
+	public long getLiteralLong() {
+		if (literalLength <= 18)
+			return parseSmallLong(literal, literalLength);
+		return new BigInteger(getLiteral()).longValueExact();
+	}
+
+	public double getLiteralDouble() {
+		return parseDouble(literal, literalLength);
+	}
+
+	public boolean isLiteralZero() {
+		for (int i = 0; i < literalLength; i++) {
+			char c = literal[i];
+			if (c == 'e' || c == 'E')
+				break;
+			if (c >= '1' && c <= '9')
+				return false;
+		}
+		return true;
+	}
+
+	protected static long parseSmallLong(@Nonnull char[] chars, int length) {
+		int i = 0;
+		boolean negative = false;
+		if (chars[0] == '-' || chars[0] == '+') {
+			negative = chars[0] == '-';
+			i++;
+		}
+		long value = 0;
+		for (; i < length; i++)
+			value = value * 10 + (chars[i] - '0');
+		return negative ? -value : value;
+	}
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	protected static double parseDouble(@Nonnull char[] chars, int length) {
+		int i = 0;
+		boolean negative = false;
+		if (chars[0] == '-' || chars[0] == '+') {
+			negative = chars[0] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		for (; i < length && isDigit(chars[i]); i++) {
+			if (mantissa != 0 || chars[i] != '0')
+				digits++;
+			mantissa = mantissa * 10 + (chars[i] - '0');
+			if (digits > 15)
+				return Double.parseDouble(new String(chars, 0, length));
+		}
+		if (i < length && chars[i] == '.') {
+			for (i++; i < length && isDigit(chars[i]); i++) {
+				if (mantissa != 0 || chars[i] != '0')
+					digits++;
+				mantissa = mantissa * 10 + (chars[i] - '0');
+				exponent--;
+				if (digits > 15)
+					return Double.parseDouble(new String(chars, 0, length));
+			}
+		}
+		if (i < length) {
+			i++;
+			boolean negativeExponent = false;
+			if (chars[i] == '-' || chars[i] == '+') {
+				negativeExponent = chars[i] == '-';
+				i++;
+			}
+			if (length - i > 4)
+				return Double.parseDouble(new String(chars, 0, length));
+			int explicitExponent = 0;
+			for (; i < length; i++)
+				explicitExponent = explicitExponent * 10 + (chars[i] - '0');
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+
+		double value;
+		if (mantissa == 0)
+			value = 0;
+		else if (exponent >= 0 && exponent < POWERS_OF_TEN.length)
+			value = mantissa * POWERS_OF_TEN[exponent];
+		else if (exponent < 0 && -exponent < POWERS_OF_TEN.length)
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		else
+			return Double.parseDouble(new String(chars, 0, length));
+		return negative ? -value : value;
+	}
+}
@@ -0,0 +1,41 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+
+public class JSONStringSink extends JSONSink {
+	@Nonnull public final StringBuilder sb;
+
+	public JSONStringSink() {
+		this(new StringBuilder());
+	}
+
+	public JSONStringSink(@Nonnull StringBuilder sb) {
+		this.sb = sb;
+	}
+
+	@Override
+	public void append(char c) {
+		sb.append(c);
+	}
+
+	@Override
+	public void append(@Nonnull CharSequence s, int start, int end) {
+		sb.append(s, start, end);
+	}
+
+	@Override
+	public void append(@Nonnull char[] chars, int start, int end) {
+		sb.append(chars, start, end - start);
+	}
+
+	@Override
+	public void appendLong(long value) {
+		sb.append(value);
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return sb.toString();
+	}
+}
@@ -0,0 +1,111 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+
+public class JSONStringSource extends JSONSource {
+	@Nonnull public final String string;
+	protected final int end;
+	protected int position;
+
+	public JSONStringSource(@Nonnull String string) {
+		this(string, 0, string.length());
+	}
+
+	public JSONStringSource(@Nonnull String string, int start, int end) {
+		if (start < 0 || end > string.length() || start > end)
+			throw new IndexOutOfBoundsException();
+		this.string = string;
+		this.position = start;
+		this.end = end;
+	}
+
+	@Override
+	public int peek() {
+		return position < end ? string.charAt(position) : EOF;
+	}
+
+	@Override
+	public int read() {
+		return position < end ? string.charAt(position++) : EOF;
+	}
+
+	@Override
+	public long getPosition() {
+		return position;
+	}
+
+	@Override
+	public int peekSignificant() {
+		while (position < end) {
+			char c = string.charAt(position);
+			if (c == '/') {
+				position++;
+				skipComment();
+			} else if (isWhitespace(c)) {
+				position++;
+			} else {
+				return c;
+			}
+		}
+		return EOF;
+	}
+
+	@Override
+	protected void readStringRun(@Nonnull StringBuilder sb, int quote) {
+		int start = position;
+		while (position < end) {
+			char c = string.charAt(position);
+			if (c == quote || c == '\\')
+				break;
+			position++;
+		}
+		sb.append(string, start, position);
+	}
+
+	@Override
+	public void skipString() {
+		int start = position;
+		char quote = string.charAt(position++);
+		while (position < end) {
+			char c = string.charAt(position++);
+			if (c == quote)
+				return;
+			if (c == '\\')
+				position++;
+		}
+		position = end;
+		throw unterminatedString(start);
+	}
+
+	@Override
+	protected void skipContainer() {
+		int depth = 0;
+		while (position < end) {
+			switch (string.charAt(position)) {
+				case '{':
+				case '[':
+					position++;
+					depth++;
+					break;
+				case '}':
+				case ']':
+					position++;
+					if (--depth == 0)
+						return;
+					break;
+				case '"':
+				case '\'':
+					skipString();
+					break;
+				case '/':
+					position++;
+					skipComment();
+					break;
+				default:
+					position++;
+					break;
+			}
+		}
+		throw unexpected(EOF, "ObjectEnd or ListEnd");
+	}
+}
@@ -0,0 +1,15 @@
+package pl.shockah.jay;
+
+public enum JSONToken {
+	ObjectBegin,
+	ObjectEnd,
+	ListBegin,
+	ListEnd,
+	Name,
+	String,
+	Integer,
+	Decimal,
+	Bool,
+	Null,
+	End;
+}
@@ -1,9 +1,11 @@
 package pl.shockah.jay;
 
 import javax.annotation.Nonnull;
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class JSONTokenizer {
@@ -12,6 +14,13 @@ public class JSONTokenizer {
 	protected static final String TRUE_LITERAL = "true";
 	protected static final String FALSE_LITERAL = "false";
 
+	protected static final int STATE_VALUE = 0;
+	protected static final int STATE_FIRST_KEY = 1;
+	protected static final int STATE_KEY = 2;
+	protected static final int STATE_AFTER_VALUE = 3;
+	protected static final int IN_OBJECT = 0;
+	protected static final int IN_LIST = 1;
+
 	@Nonnull
 	public List<Object> tokenize(@Nonnull String json) {
 		List<Object> tokens = new ArrayList<>();
@@ -151,6 +160,167 @@ public class JSONTokenizer {
 		return tokens;
 	}
 	
+	public void tokenize(@Nonnull String json, @Nonnull JSONHandler handler) {
+		JSONStringSource source = new JSONStringSource(json);
+		try {
+			tokenize(source, handler);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	public void tokenize(@Nonnull Reader reader, @Nonnull JSONHandler handler) {
+		JSONReaderSource source = new JSONReaderSource(reader);
+		try {
+			tokenize(source, handler);
+		} finally {
+			source.releaseBuffers();
+		}
+	}
+
+	public void tokenize(@Nonnull JSONSource source, @Nonnull JSONHandler handler) {
+		StringBuilder sb = new StringBuilder();
+		int[] stack = new int[32];
+		int depth = 0;
+		int state = STATE_VALUE;
+
+		while (true) {
+			int c = source.peekSignificant();
+			switch (state) {
+				case STATE_VALUE:
+					if (c == '{') {
+						source.read();
+						handler.startObject();
+						if (depth == stack.length)
+							stack = Arrays.copyOf(stack, depth * 2);
+						stack[depth++] = IN_OBJECT;
+						state = STATE_FIRST_KEY;
+						continue;
+					} else if (c == '[') {
+						source.read();
+						handler.startList();
+						if (source.peekSignificant() == ']') {
+							source.read();
+							handler.endList();
+						} else {
+							if (depth == stack.length)
+								stack = Arrays.copyOf(stack, depth * 2);
+							stack[depth++] = IN_LIST;
+							continue;
+						}
+					} else if (c == '"' || c == '\'') {
+						sb.setLength(0);
+						source.readString(sb);
+						handler.value(sb);
+					} else if (JSONSource.isLiteralCharacter(c)) {
+						literal(source, source.readLiteral(), handler);
+					} else {
+						throw source.unexpected(c, "value token");
+					}
+					state = STATE_AFTER_VALUE;
+					break;
+				case STATE_FIRST_KEY:
+				case STATE_KEY:
+					if (c == '}' && state == STATE_FIRST_KEY) {
+						source.read();
+						handler.endObject();
+						depth--;
+						state = STATE_AFTER_VALUE;
+						break;
+					}
+					if (c != '"' && c != '\'')
+						throw source.unexpected(c, "key token");
+					sb.setLength(0);
+					source.readString(sb);
+					handler.key(sb);
+					source.expect(':', "Colon");
+					state = STATE_VALUE;
+					continue;
+				default:
+					if (depth == 0) {
+						if (c != JSONSource.EOF)
+							throw new JSONParseException(String.format("Additional token '%c' at position %d after the root value", (char)c, source.getPosition()));
+						return;
+					}
+					if (stack[depth - 1] == IN_OBJECT) {
+						if (c == ',') {
+							source.read();
+							state = STATE_KEY;
+						} else if (c == '}') {
+							source.read();
+							handler.endObject();
+							depth--;
+						} else {
+							throw source.unexpected(c, "Comma or ObjectEnd");
+						}
+					} else {
+						if (c == ',') {
+							source.read();
+							state = STATE_VALUE;
+						} else if (c == ']') {
+							source.read();
+							handler.endList();
+							depth--;
+						} else {
+							throw source.unexpected(c, "Comma or ListEnd");
+						}
+					}
+					break;
+			}
+		}
+	}
+
+	protected void literal(@Nonnull JSONSource source, @Nonnull JSONSource.Literal kind, @Nonnull JSONHandler handler) {
+		switch (kind) {
+			case Null:
+				handler.nullValue();
+				break;
+			case True:
+				handler.value(true);
+				break;
+			case False:
+				handler.value(false);
+				break;
+			case Integer:
+				if (source.literalLength <= 18) {
+					handler.value(JSONSource.parseSmallLong(source.literal, source.literalLength));
+				} else {
+					BigInteger value = source.getLiteralBigInt();
+					if (value.bitLength() < 64)
+						handler.value(value.longValue());
+					else
+						handler.value(value);
+				}
+				break;
+			default:
+				double value = source.getLiteralDouble();
+				if (isExactDouble(source, value)) {
+					handler.value(value);
+				} else {
+					BigDecimal decimal = source.getLiteralBigDecimal();
+					if (!Double.isInfinite(value) && (value != 0 || decimal.signum() == 0) && BigDecimal.valueOf(value).compareTo(decimal) == 0)
+						handler.value(value);
+					else
+						handler.value(decimal);
+				}
+				break;
+		}
+	}
+
+	protected static boolean isExactDouble(@Nonnull JSONSource source, double value) {
+		if (Double.isInfinite(value) || (value != 0 && Math.abs(value) < Double.MIN_NORMAL) || (value == 0 && !source.isLiteralZero()))
+			return false;
+		int digits = 0;
+		for (int i = 0; i < source.literalLength; i++) {
+			char c = source.literal[i];
+			if (c == 'e' || c == 'E')
+				break;
+			if ((c >= '1' && c <= '9') || (c == '0' && digits != 0))
+				digits++;
+		}
+		return digits <= 15;
+	}
+
 	protected static class StrBuffer {
 		@Nonnull public final String string;
 		public int position = 0;
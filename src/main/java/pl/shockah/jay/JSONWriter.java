@@ -0,0 +1,211 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class JSONWriter implements Closeable, Flushable {
+	protected static final int DOCUMENT = 0;
+	protected static final int EMPTY_OBJECT = 1;
+	protected static final int OBJECT = 2;
+	protected static final int DANGLING_NAME = 3;
+	protected static final int EMPTY_LIST = 4;
+	protected static final int LIST = 5;
+
+	@Nonnull public final JSONSink sink;
+	@Nonnull public final JSONPrinter printer;
+
+	@Nonnull protected int[] stack = new int[32];
+	protected int depth = 1;
+	protected boolean written = false;
+
+	public JSONWriter(@Nonnull Appendable out) {
+		this(JSONSink.of(out));
+	}
+
+	public JSONWriter(@Nonnull OutputStream out) {
+		this(JSONSink.of(out));
+	}
+
+	public JSONWriter(@Nonnull JSONSink sink) {
+		this(sink, new JSONPrinter());
+	}
+
+	public JSONWriter(@Nonnull JSONSink sink, @Nonnull JSONPrinter printer) {
+		this.sink = sink;
+		this.printer = printer;
+		stack[0] = DOCUMENT;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		sink.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (depth != 1)
+				throw new IllegalStateException("Unclosed object or list");
+		} finally {
+			sink.close();
+		}
+	}
+
+	public int getDepth() {
+		return depth - 1;
+	}
+
+	protected void push(int state) {
+		if (depth == stack.length)
+			stack = Arrays.copyOf(stack, depth * 2);
+		stack[depth++] = state;
+	}
+
+	protected void beforeValue() {
+		switch (stack[depth - 1]) {
+			case DOCUMENT:
+				if (written)
+					sink.append('\n');
+				written = true;
+				break;
+			case DANGLING_NAME:
+				stack[depth - 1] = OBJECT;
+				break;
+			case EMPTY_LIST:
+				stack[depth - 1] = LIST;
+				break;
+			case LIST:
+				sink.append(',');
+				break;
+			default:
+				throw new IllegalStateException("Expected a name");
+		}
+	}
+
+	@Nonnull
+	public JSONWriter beginObject() {
+		beforeValue();
+		sink.append('{');
+		push(EMPTY_OBJECT);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter endObject() {
+		int state = stack[depth - 1];
+		if (state != EMPTY_OBJECT && state != OBJECT)
+			throw new IllegalStateException("Not inside an object");
+		sink.append('}');
+		depth--;
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter beginList() {
+		beforeValue();
+		sink.append('[');
+		push(EMPTY_LIST);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter endList() {
+		int state = stack[depth - 1];
+		if (state != EMPTY_LIST && state != LIST)
+			throw new IllegalStateException("Not inside a list");
+		sink.append(']');
+		depth--;
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter name(@Nonnull String name) {
+		int state = stack[depth - 1];
+		if (state == OBJECT)
+			sink.append(',');
+		else if (state != EMPTY_OBJECT)
+			throw new IllegalStateException("Not inside an object");
+		printer.writeKey(sink, name);
+		stack[depth - 1] = DANGLING_NAME;
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter nullValue() {
+		beforeValue();
+		sink.append("null");
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(@Nullable String value) {
+		beforeValue();
+		printer.writeValue(sink, value);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(boolean value) {
+		beforeValue();
+		sink.append(value ? "true" : "false");
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(long value) {
+		beforeValue();
+		printer.writeLong(sink, value);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			throw new NumberFormatException(String.format("Invalid number '%s'", value));
+		beforeValue();
+		printer.writeDouble(sink, value);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(@Nullable BigInteger value) {
+		beforeValue();
+		printer.writeValue(sink, value);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(@Nullable BigDecimal value) {
+		beforeValue();
+		printer.writeValue(sink, value);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter value(@Nullable Object value) {
+		beforeValue();
+		printer.writeValue(sink, value);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter write(@Nonnull JSONObject j) {
+		beforeValue();
+		printer.writeValue(sink, j);
+		return this;
+	}
+
+	@Nonnull
+	public JSONWriter write(@Nonnull JSONList<?> j) {
+		beforeValue();
+		printer.writeValue(sink, j);
+		return this;
+	}
+}
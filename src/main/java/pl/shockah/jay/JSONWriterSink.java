@@ -0,0 +1,87 @@
+package pl.shockah.jay;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+public class JSONWriterSink extends JSONSink {
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	@Nonnull public final Writer writer;
+	@Nonnull protected final char[] buffer;
+	protected int position = 0;
+
+	public JSONWriterSink(@Nonnull Writer writer) {
+		this(writer, DEFAULT_BUFFER_SIZE);
+	}
+
+	public JSONWriterSink(@Nonnull Writer writer, int bufferSize) {
+		if (bufferSize <= 0)
+			throw new IllegalArgumentException();
+		this.writer = writer;
+		this.buffer = new char[bufferSize];
+	}
+
+	protected void drain() {
+		try {
+			writer.write(buffer, 0, position);
+			position = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void append(char c) {
+		if (position == buffer.length)
+			drain();
+		buffer[position++] = c;
+	}
+
+	@Override
+	public void append(@Nonnull CharSequence s, int start, int end) {
+		while (start < end) {
+			if (position == buffer.length)
+				drain();
+			int count = Math.min(end - start, buffer.length - position);
+			if (s instanceof String) {
+				((String)s).getChars(start, start + count, buffer, position);
+				position += count;
+				start += count;
+			} else {
+				for (int i = 0; i < count; i++)
+					buffer[position++] = s.charAt(start++);
+			}
+		}
+	}
+
+	@Override
+	public void append(@Nonnull char[] chars, int start, int end) {
+		if (end - start > buffer.length) {
+			drain();
+			try {
+				writer.write(chars, start, end - start);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return;
+		}
+		if (end - start > buffer.length - position)
+			drain();
+		System.arraycopy(chars, start, buffer, position, end - start);
+		position += end - start;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		writer.close();
+	}
+}